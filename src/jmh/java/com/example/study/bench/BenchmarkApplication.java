@@ -0,0 +1,57 @@
+package com.example.study.bench;
+
+import com.example.study.StudyApplication;
+import com.example.study.service.MemberDataSeeder;
+import com.example.study.service.MemberSeedSpec;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 벤치마크용 스프링 컨텍스트
+ * 웹서버/SQL 로그 없이 임베디드 H2 에 회원 데이터를 채워서 띄움
+ */
+public final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    public static ConfigurableApplicationContext start(String name, int memberCount, String... properties) {
+        List<String> args = new ArrayList<>(Arrays.asList(
+                "--spring.profiles.active=bench",
+                "--spring.datasource.url=jdbc:h2:mem:" + name + "-" + memberCount + ";DB_CLOSE_DELAY=-1",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--logging.level.root=warn",
+                "--logging.level.org.hibernate.SQL=warn",
+                "--logging.level.org.hibernate.type=warn",
+                "--logging.level.p6spy=warn",
+                "--decorator.datasource.p6spy.enable-logging=false"));
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+
+//        application.yml 의 설정(local 프로필 등)보다 우선하도록 커맨드라인 인자로 넘김
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(StudyApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(new String[0]));
+        seed(context, memberCount);
+        return context;
+    }
+
+    //    팀 100개 (zipf 분포), 나이는 정규분포 / memberCount 가 0 이면 빈 DB 로 띄움 (insert 벤치마크)
+    private static void seed(ConfigurableApplicationContext context, int memberCount) {
+        if (memberCount <= 0) {
+            return;
+        }
+        MemberSeedSpec spec = new MemberSeedSpec();
+        spec.setMemberCount(memberCount);
+        spec.setTeamCount(100);
+        context.getBean(MemberDataSeeder.class).seed(spec);
+        context.getBean(JdbcTemplate.class).execute("analyze");
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.study.bench;
+
+import com.example.study.entity.Member;
+import com.example.study.entity.Team;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JPA insert 처리량 : 시퀀스 블록 크기별 비교
+ * allocationSize=1 이 이전 방식 (insert 마다 시퀀스 왕복), 50 / 500 은 pooled-lo 로 메모리에서 할당
+ * 한번 호출 = 트랜잭션 하나에 팀 1개 + 회원 INSERTS_PER_TRANSACTION 명
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class IdGenerationBenchmark {
+
+    private static final int INSERTS_PER_TRANSACTION = 100;
+
+    @Param({"1", "50", "500"})
+    int allocationSize;
+
+    ConfigurableApplicationContext context;
+    EntityManager entityManager;
+    TransactionTemplate transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("insert", 0, "member.id.allocation-size=" + allocationSize);
+        entityManager = context.getBean(EntityManager.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INSERTS_PER_TRANSACTION + 1)
+    public Long insert() {
+        return transactionTemplate.execute(status -> insertTeam());
+    }
+
+    //    같은 시퀀스를 여러 스레드가 같이 쓸때
+    @Benchmark
+    @Threads(4)
+    @OperationsPerInvocation(INSERTS_PER_TRANSACTION + 1)
+    public Long insertConcurrently() {
+        return transactionTemplate.execute(status -> insertTeam());
+    }
+
+    private Long insertTeam() {
+        Team team = new Team("insertTeam");
+        entityManager.persist(team);
+        for (int i = 0; i < INSERTS_PER_TRANSACTION; i++) {
+            entityManager.persist(new Member("insertMember" + i, i % 60, team));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return team.getId();
+    }
+}
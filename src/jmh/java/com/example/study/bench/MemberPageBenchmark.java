@@ -0,0 +1,68 @@
+package com.example.study.bench;
+
+import com.example.study.dto.MemberTeamDto;
+import com.example.study.dto.MemberTeamSearchCondition;
+import com.example.study.repository.MemberRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * searchPageSimple(컨텐츠 + 카운트 쿼리를 항상 실행) vs searchPageComplex(필요할때만 카운트, 카운트 캐시 사용) 비교
+ * countCache=false 이면 카운트 캐시를 끄고 매번 카운트 쿼리를 실행
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MemberPageBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    int memberCount;
+
+    @Param({"false", "true"})
+    boolean countCache;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+    MemberTeamSearchCondition condition;
+    PageRequest pageRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("page", memberCount,
+                "member.count-cache.maximum-size=" + (countCache ? 1000 : 0));
+        memberRepository = context.getBean(MemberRepository.class);
+
+        condition = new MemberTeamSearchCondition();
+        condition.setAgeGoe(20);
+        condition.setAgeLoe(40);
+        pageRequest = PageRequest.of(10, 20);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> searchPageSimple() {
+        return memberRepository.searchPageSimple(condition, pageRequest);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> searchPageComplex() {
+        return memberRepository.searchPageComplex(condition, pageRequest);
+    }
+}
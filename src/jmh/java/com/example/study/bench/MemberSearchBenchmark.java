@@ -0,0 +1,62 @@
+package com.example.study.bench;
+
+import com.example.study.dto.MemberTeamDto;
+import com.example.study.dto.MemberTeamSearchCondition;
+import com.example.study.repository.MemberJPARepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BooleanBuilder(searchByBuilder) vs where 파라미터(search) 비교
+ * 처리량(ops/s)과 지연시간 분포(SampleTime) 를 같이 측정
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MemberSearchBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    int memberCount;
+
+    ConfigurableApplicationContext context;
+    MemberJPARepository memberJPARepository;
+    MemberTeamSearchCondition condition;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("search", memberCount);
+        memberJPARepository = context.getBean(MemberJPARepository.class);
+
+        condition = new MemberTeamSearchCondition();
+        condition.setTeamName("team7");
+        condition.setAgeGoe(20);
+        condition.setAgeLoe(40);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> searchByBuilder() {
+        return memberJPARepository.searchByBuilder(condition);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> searchWhereParam() {
+        return memberJPARepository.search(condition);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.study.bench;
+
+import com.example.study.dto.MemberTeamDto;
+import com.example.study.dto.MemberTeamSearchCondition;
+import com.example.study.repository.MemberRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * username 검색어 자동완성 : like '%x%' 풀스캔 vs trigram 인덱스 vs 앞부분 일치(username 인덱스)
+ * 둘다 memberRepository.search 로 실행하고 usernameIndex=false 이면 같은 경로에서 like 스캔 (member.username-index.enabled)
+ * 회원명이 member0 ~ member{n} 이므로
+ * - "12345" : 드문 gram 이라 후보가 적음 (결과도 n 에 비례해서 조금씩 늘어남)
+ * - "mem" : 모든 회원이 가진 gram 이라 in (gram) group by having 이 member 전체를 모음 (trigram 의 약한 경우)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MemberUsernameSearchBenchmark {
+
+    @Param({"100000", "1000000"})
+    int memberCount;
+
+    @Param({"12345", "mem"})
+    String term;
+
+    @Param({"true", "false"})
+    boolean usernameIndex;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+    MemberTeamSearchCondition contains;
+    MemberTeamSearchCondition startsWith;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("username-" + usernameIndex, memberCount,
+                "member.username-index.enabled=" + usernameIndex);
+        memberRepository = context.getBean(MemberRepository.class);
+
+        contains = new MemberTeamSearchCondition();
+        contains.setUsernameContains(term);
+        startsWith = new MemberTeamSearchCondition();
+        startsWith.setUsernameStartsWith("member" + term);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    //    usernameIndex=false 가 기준 (인덱스 없이 member 전체를 읽으면서 like 비교)
+    @Benchmark
+    public List<MemberTeamDto> usernameContains() {
+        return memberRepository.search(contains);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> indexedStartsWith() {
+        return memberRepository.search(startsWith);
+    }
+}
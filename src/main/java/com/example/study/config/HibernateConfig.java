@@ -0,0 +1,26 @@
+package com.example.study.config;
+
+import com.example.study.repository.MemberWriteListener;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class HibernateConfig {
+
+    @Bean
+    HibernatePropertiesCustomizer memberWriteInspectorCustomizer(ObjectProvider<MemberWriteListener> listeners) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR,
+                new MemberWriteStatementInspector(listeners));
+    }
+
+//    PooledSequenceGenerator 가 읽는 id 블록 크기
+    @Bean
+    HibernatePropertiesCustomizer idAllocationSizeCustomizer(
+            @Value("${member.id.allocation-size:" + PooledSequenceGenerator.DEFAULT_ALLOCATION_SIZE + "}") int allocationSize) {
+        return properties -> properties.put(PooledSequenceGenerator.ALLOCATION_SIZE, allocationSize);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.study.config;
+
+import com.example.study.entity.Member;
+import com.example.study.entity.Team;
+import com.example.study.service.MemberAnalyticsSnapshot;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * 커밋된 Member / Team 변경을 MemberAnalyticsSnapshot 에 전달 (롤백된 변경은 안옴)
+ */
+@Component
+@RequiredArgsConstructor
+public class MemberSnapshotListener implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final MemberAnalyticsSnapshot memberAnalyticsSnapshot;
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        changed(event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        changed(event.getEntity());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member) {
+            memberAnalyticsSnapshot.memberDeleted((Long) event.getId());
+        }
+    }
+
+    //    팀 삭제는 남은 회원이 없을때만 가능하므로 사전에 그대로 둠 (집계에서는 0건이라 안나옴)
+    private void changed(Object entity) {
+        if (entity instanceof Member) {
+            Member member = (Member) entity;
+            Team team = member.getTeam();
+            memberAnalyticsSnapshot.memberChanged(member.getId(), member.getAge(), team == null ? null : team.getId());
+        } else if (entity instanceof Team) {
+            Team team = (Team) entity;
+            memberAnalyticsSnapshot.teamChanged(team.getId(), team.getName());
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return true;
+    }
+
+    //    5.6 까지는 추상 메서드라 구현은 남겨둠 (위 메서드로 위임)
+    @Override
+    @Deprecated
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return requiresPostCommitHandling(persister);
+    }
+}
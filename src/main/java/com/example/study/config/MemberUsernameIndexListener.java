@@ -0,0 +1,102 @@
+package com.example.study.config;
+
+import com.example.study.entity.Member;
+import com.example.study.repository.MemberUsernameIndex;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.util.Objects;
+
+/**
+ * Member insert / username 변경 / delete 를 flush 하는 시점에 같은 커넥션으로 member_username_gram 반영
+ * (같은 트랜잭션이라 롤백되면 같이 롤백)
+ * HQL/querydsl 벌크 연산은 엔티티 이벤트가 없으므로 MemberUsernameIndex.reindex() 로 맞춤
+ */
+@Component
+@RequiredArgsConstructor
+public class MemberUsernameIndexListener implements PostInsertEventListener, PostUpdateEventListener,
+        PostDeleteEventListener {
+
+    private static final String USERNAME = "username";
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Member) {
+            Member member = (Member) event.getEntity();
+            write(event.getSession(), member.getId(), member.getUsername());
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Member) || !usernameChanged(event)) {
+            return;
+        }
+        Member member = (Member) event.getEntity();
+        write(event.getSession(), member.getId(), member.getUsername());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member) {
+            write(event.getSession(), (Long) event.getId(), null);
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    //    5.6 까지는 추상 메서드라 구현은 남겨둠 (위 메서드로 위임)
+    @Override
+    @Deprecated
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return requiresPostCommitHandling(persister);
+    }
+
+    //    dirty 체크 결과가 없으면(merge 등) 이전 값과 직접 비교
+    private static boolean usernameChanged(PostUpdateEvent event) {
+        int index = event.getPersister().getEntityMetamodel().getPropertyIndex(USERNAME);
+        int[] dirty = event.getDirtyProperties();
+        if (dirty != null) {
+            for (int property : dirty) {
+                if (property == index) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        Object[] oldState = event.getOldState();
+        return oldState == null || !Objects.equals(oldState[index], event.getState()[index]);
+    }
+
+    private static void write(EventSource session, Long memberId, String username) {
+        session.doWork(connection -> MemberUsernameIndex.write(connection, memberId, username));
+    }
+}
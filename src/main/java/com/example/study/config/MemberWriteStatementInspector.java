@@ -0,0 +1,57 @@
+package com.example.study.config;
+
+import com.example.study.repository.MemberWriteListener;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.regex.Pattern;
+
+/**
+ * 하이버네이트가 실행하는 모든 SQL 을 확인해서 member / team 쓰기를 감지
+ * 엔티티 저장/삭제 뿐만 아니라 querydsl 벌크 update/delete 도 여기를 거치기 때문에 한곳에서 처리 가능
+ */
+public class MemberWriteStatementInspector implements StatementInspector {
+
+    private static final Pattern WRITE = Pattern.compile(
+            "^\\s*(insert\\s+into|update|delete\\s+from)\\s+(member|team)\\b",
+            Pattern.CASE_INSENSITIVE);
+
+    private static final Object AFTER_COMPLETION_KEY = new Object();
+
+    private final ObjectProvider<MemberWriteListener> listeners;
+
+    public MemberWriteStatementInspector(ObjectProvider<MemberWriteListener> listeners) {
+        this.listeners = listeners;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        if (WRITE.matcher(sql).find()) {
+            notifyListeners();
+            notifyAfterCompletion();
+        }
+        return sql;
+    }
+
+    //    커밋 전에 다른 트랜잭션이 옛날 값으로 캐시를 다시 채울수 있으므로 트랜잭션 종료 후 한번 더 비움
+    private void notifyAfterCompletion() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(AFTER_COMPLETION_KEY)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(AFTER_COMPLETION_KEY, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(AFTER_COMPLETION_KEY);
+                notifyListeners();
+            }
+        });
+    }
+
+    private void notifyListeners() {
+        listeners.orderedStream().forEach(MemberWriteListener::onMemberWrite);
+    }
+}
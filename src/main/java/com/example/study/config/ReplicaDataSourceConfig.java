@@ -0,0 +1,68 @@
+package com.example.study.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * member.datasource.replica.url 이 있으면 spring.datasource 를 프라이머리로,
+ * 레플리카를 읽기 전용으로 쓰는 라우팅 데이터소스를 등록
+ * p6spy 는 routingTargetDataSource 만 감싸도록 나머지는 decorator.datasource.exclude-beans 에 등록되어 있음
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "member.datasource.replica", name = "url")
+@EnableConfigurationProperties(ReplicaDataSourceProperties.class)
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    HikariDataSource replicaDataSource(ReplicaDataSourceProperties properties) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setJdbcUrl(properties.getUrl());
+        dataSource.setUsername(properties.getUsername());
+        dataSource.setPassword(properties.getPassword());
+        if (properties.getDriverClassName() != null) {
+            dataSource.setDriverClassName(properties.getDriverClassName());
+        }
+        dataSource.setMaximumPoolSize(properties.getMaximumPoolSize());
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    ReplicaLagMonitor replicaLagMonitor(HikariDataSource replicaDataSource, ReplicaDataSourceProperties properties) {
+        return new ReplicaLagMonitor(replicaDataSource, properties);
+    }
+
+    //    p6spy 로 감싸지는 실제 라우팅 데이터소스
+    @Bean
+    ReplicaRoutingDataSource routingTargetDataSource(HikariDataSource primaryDataSource,
+                                                     HikariDataSource replicaDataSource,
+                                                     ReplicaLagMonitor replicaLagMonitor) {
+        return new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource, replicaLagMonitor);
+    }
+
+    //    p6spy 가 커넥션을 받자마자 메타데이터를 조회하기 때문에 Lazy 프록시는 p6spy 보다 바깥에 있어야 함
+    @Bean
+    @Primary
+    DataSource routingDataSource(@Qualifier("routingTargetDataSource") DataSource routingTargetDataSource) {
+        return new LazyConnectionDataSourceProxy(routingTargetDataSource);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.study.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 읽기 전용 레플리카 설정 (member.datasource.replica.*)
+ * url 이 있을때만 라우팅 데이터소스가 만들어짐
+ */
+@Data
+@ConfigurationProperties("member.datasource.replica")
+public class ReplicaDataSourceProperties {
+
+    private String url;
+    private String username;
+    private String password;
+    private String driverClassName;
+    private int maximumPoolSize = 10;
+
+    //    이 값보다 복제가 늦으면 프라이머리에서 읽음
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    //    복제 지연(ms)을 돌려주는 쿼리, 없으면 연결만 확인하고 지연은 0 으로 봄
+    //    ex) postgres : select extract(epoch from now() - pg_last_xact_replay_timestamp()) * 1000
+    private String lagQuery;
+
+    private Duration checkInterval = Duration.ofSeconds(1);
+}
@@ -0,0 +1,112 @@
+package com.example.study.config;
+
+import com.example.study.repository.MemberWriteListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 레플리카 상태를 주기적으로 확인
+ * 연결이 안되거나 복제 지연이 maxLag 를 넘으면 다음 확인때까지 읽기도 프라이머리로 보냄
+ * member/team 쓰기 후 maxLag 동안은 레플리카에 아직 안왔을수 있음 (isRecentlyWritten)
+ */
+@Slf4j
+public class ReplicaLagMonitor implements MemberWriteListener {
+
+    private final DataSource replica;
+    private final String lagQuery;
+    private final Duration maxLag;
+    private final Duration checkInterval;
+
+    private ScheduledExecutorService scheduler;
+    private volatile boolean available;
+    private volatile long lagMillis = -1;
+    private volatile long lastWriteNanos = System.nanoTime() - Long.MAX_VALUE / 2;
+
+    public ReplicaLagMonitor(DataSource replica, ReplicaDataSourceProperties properties) {
+        this.replica = replica;
+        this.lagQuery = properties.getLagQuery();
+        this.maxLag = properties.getMaxLag();
+        this.checkInterval = properties.getCheckInterval();
+    }
+
+    @PostConstruct
+    public void start() {
+        check();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = checkInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::check, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public void check() {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement()) {
+            long lag = 0;
+            if (StringUtils.hasText(lagQuery)) {
+                try (ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                    lag = resultSet.next() ? resultSet.getLong(1) : 0;
+                }
+            } else if (!connection.isValid(1)) {
+                markUnavailable("connection is not valid");
+                return;
+            }
+            lagMillis = lag;
+            boolean withinLag = lag <= maxLag.toMillis();
+            if (!withinLag && available) {
+                log.warn("replica lag {}ms exceeds {}ms, reading from primary", lag, maxLag.toMillis());
+            }
+            available = withinLag;
+        } catch (SQLException | RuntimeException e) {
+            markUnavailable(e.getMessage());
+        }
+    }
+
+    //    라우팅 중에 레플리카 연결이 실패한 경우에도 호출됨
+    public void markUnavailable(String reason) {
+        if (available) {
+            log.warn("replica unavailable, reading from primary: {}", reason);
+        }
+        available = false;
+    }
+
+    //    쓰기 직후(커밋 후 한번 더 호출됨)
+    @Override
+    public void onMemberWrite() {
+        lastWriteNanos = System.nanoTime();
+    }
+
+    //    마지막 쓰기 후 maxLag 가 안지났으면 레플리카는 쓰기 전 데이터일수 있음
+    public boolean isRecentlyWritten() {
+        return System.nanoTime() - lastWriteNanos < maxLag.toNanos();
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public long getLagMillis() {
+        return lagMillis;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.study.config;
+
+import com.example.study.dto.MemberTeamSearchCondition;
+import com.example.study.repository.MemberJPARepository;
+import com.example.study.repository.MemberRepositoryMetrics;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MemberRepository(스프링 데이터 프록시) / MemberJPARepository 검색 메서드 실행시간, 반환 row 수 기록
+ * MemberRepositoryImpl 빈은 MemberRepository 를 구현하지 않으므로 커스텀 메서드가 두번 기록되지 않음
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class RepositoryMetricsAspect {
+
+    private final MemberRepositoryMetrics metrics;
+
+    @Pointcut("execution(* search(..)) || execution(* searchPageSimple(..)) || execution(* searchPageComplex(..))"
+            + " || execution(* searchFields(..)) || execution(* searchByBuilder(..)) || execution(* findAll(..)) || execution(* findByUsername(..))")
+    void searchMethods() {
+    }
+
+    @Pointcut("this(com.example.study.repository.MemberRepository) || target(com.example.study.repository.MemberJPARepository)")
+    void memberRepositories() {
+    }
+
+    @Around("searchMethods() && memberRepositories()")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        String repository = joinPoint.getTarget() instanceof MemberJPARepository ? "MemberJPARepository" : "MemberRepository";
+        String method = joinPoint.getSignature().getName();
+        String conditions = conditions(joinPoint.getArgs());
+
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            Object result = joinPoint.proceed();
+            outcome = "success";
+            int rows = rows(result);
+            if (rows >= 0) {
+                metrics.recordRows(repository, method, conditions, rows);
+            }
+            return result;
+        } finally {
+            metrics.timer(repository, method, outcome)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            metrics.countCall(repository, method, conditions, outcome);
+        }
+    }
+
+    private static String conditions(Object[] args) {
+        for (Object arg : args) {
+            if (arg instanceof MemberTeamSearchCondition) {
+                return MemberRepositoryMetrics.conditions((MemberTeamSearchCondition) arg);
+            }
+        }
+//        findByUsername(username)
+        if (args.length == 1 && args[0] instanceof String && StringUtils.hasText((String) args[0])) {
+            return "username";
+        }
+        return MemberRepositoryMetrics.NO_CONDITION;
+    }
+
+    private static int rows(Object result) {
+        if (result instanceof Page) {
+            return ((Page<?>) result).getNumberOfElements();
+        }
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.study.config;
+
+import com.p6spy.engine.common.PreparedStatementInformation;
+import com.p6spy.engine.common.ResultSetInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * p6spy 이벤트로 SQL 을 샘플링해서 쿼리 모양(리터럴/IN 목록을 ? 로 바꾼 SQL)별로 횟수, 시간, row 수를 집계
+ * 파라미터 값은 slow-threshold 를 넘은 쿼리만 문자열로 만들어서 slow 로그에 남김
+ * p6spy 로그 / org.hibernate.type trace 는 꺼두고 이걸로 확인 (/actuator/sqlprofile)
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "member.sql-profiler", name = "enabled", matchIfMissing = true)
+public class SqlProfiler extends SimpleJdbcEventListener {
+
+    private static final String OTHER_SHAPE = "<other>";
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+    private final int maxShapes;
+    private final int slowLogSize;
+
+    private final Map<String, ShapeStats> shapes = new ConcurrentHashMap<>();
+    private final Map<String, String> normalized = new ConcurrentHashMap<>();
+    private final Deque<SlowQuery> slowQueries = new ConcurrentLinkedDeque<>();
+
+    //    지금 스레드에서 샘플링된 statement (row 수를 같은 shape 에 더하기 위해)
+    private final ThreadLocal<Sampled> current = new ThreadLocal<>();
+
+    public SqlProfiler(@Value("${member.sql-profiler.sample-rate:0.1}") double sampleRate,
+                       @Value("${member.sql-profiler.slow-threshold:200ms}") Duration slowThreshold,
+                       @Value("${member.sql-profiler.max-shapes:500}") int maxShapes,
+                       @Value("${member.sql-profiler.slow-log-size:100}") int slowLogSize) {
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.maxShapes = maxShapes;
+        this.slowLogSize = slowLogSize;
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        if (timeElapsedNanos >= slowThresholdNanos) {
+            recordSlow(statementInformation, timeElapsedNanos);
+        }
+        if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        String sql = statementInformation.getSql();
+        if (sql == null || sql.isEmpty()) {
+            return;
+        }
+        ShapeStats stats = shapeStats(shapeOf(sql));
+        stats.record(timeElapsedNanos);
+        current.set(new Sampled(statementInformation, stats));
+    }
+
+    @Override
+    public void onAfterExecuteUpdate(PreparedStatementInformation statementInformation, long timeElapsedNanos,
+                                     int rowCount, SQLException e) {
+        super.onAfterExecuteUpdate(statementInformation, timeElapsedNanos, rowCount, e);
+        addRows(statementInformation, rowCount);
+    }
+
+    @Override
+    public void onAfterExecuteUpdate(StatementInformation statementInformation, long timeElapsedNanos,
+                                     String sql, int rowCount, SQLException e) {
+        super.onAfterExecuteUpdate(statementInformation, timeElapsedNanos, sql, rowCount, e);
+        addRows(statementInformation, rowCount);
+    }
+
+    @Override
+    public void onAfterExecuteBatch(StatementInformation statementInformation, long timeElapsedNanos,
+                                    int[] updateCounts, SQLException e) {
+        super.onAfterExecuteBatch(statementInformation, timeElapsedNanos, updateCounts, e);
+        if (updateCounts != null) {
+            long rows = 0;
+            for (int updateCount : updateCounts) {
+                rows += Math.max(0, updateCount);
+            }
+            addRows(statementInformation, rows);
+        }
+    }
+
+    @Override
+    public void onAfterResultSetNext(ResultSetInformation resultSetInformation, long timeElapsedNanos,
+                                     boolean hasNext, SQLException e) {
+        if (hasNext) {
+            addRows(resultSetInformation.getStatementInformation(), 1);
+        }
+    }
+
+    @Override
+    public void onAfterStatementClose(StatementInformation statementInformation, SQLException e) {
+        Sampled sampled = current.get();
+        if (sampled != null && sampled.statement == statementInformation) {
+            current.remove();
+        }
+    }
+
+    public List<ShapeSnapshot> top(int limit, Comparator<ShapeSnapshot> order) {
+        return shapes.entrySet().stream()
+                .map(entry -> entry.getValue().snapshot(entry.getKey()))
+                .sorted(order)
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    public List<SlowQuery> slowQueries() {
+        return new ArrayList<>(slowQueries);
+    }
+
+    public void reset() {
+        shapes.clear();
+        slowQueries.clear();
+    }
+
+    //    같은 SQL 문자열은 다시 정규화하지 않음 (하이버네이트 SQL 은 종류가 많지 않음)
+    String shapeOf(String sql) {
+        String shape = normalized.get(sql);
+        if (shape == null) {
+            shape = normalize(sql);
+            if (normalized.size() < maxShapes * 4) {
+                normalized.put(sql, shape);
+            }
+        }
+        return shape;
+    }
+
+    static String normalize(String sql) {
+        String shape = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        shape = STRING_LITERAL.matcher(shape).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        return IN_LIST.matcher(shape).replaceAll("(?)");
+    }
+
+    private ShapeStats shapeStats(String shape) {
+        ShapeStats stats = shapes.get(shape);
+        if (stats != null) {
+            return stats;
+        }
+//        모양이 너무 많아지면(리터럴이 많은 동적 SQL 등) 나머지는 하나로 모음
+        String key = shapes.size() < maxShapes ? shape : OTHER_SHAPE;
+        return shapes.computeIfAbsent(key, k -> new ShapeStats());
+    }
+
+    private void addRows(StatementInformation statementInformation, long rows) {
+        Sampled sampled = current.get();
+        if (sampled != null && sampled.statement == statementInformation) {
+            sampled.stats.rows.add(rows);
+        }
+    }
+
+    private void recordSlow(StatementInformation statementInformation, long timeElapsedNanos) {
+        SlowQuery slowQuery = new SlowQuery(Instant.now(), TimeUnit.NANOSECONDS.toMillis(timeElapsedNanos),
+                statementInformation.getSqlWithValues());
+        log.warn("slow query {}ms : {}", slowQuery.getElapsedMillis(), slowQuery.getSql());
+        slowQueries.addFirst(slowQuery);
+        while (slowQueries.size() > slowLogSize) {
+            slowQueries.pollLast();
+        }
+    }
+
+    private static class Sampled {
+        private final StatementInformation statement;
+        private final ShapeStats stats;
+
+        private Sampled(StatementInformation statement, ShapeStats stats) {
+            this.statement = statement;
+            this.stats = stats;
+        }
+    }
+
+    private static class ShapeStats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder rows = new LongAdder();
+
+        private void record(long elapsedNanos) {
+            count.increment();
+            totalNanos.add(elapsedNanos);
+            maxNanos.accumulate(elapsedNanos);
+        }
+
+        private ShapeSnapshot snapshot(String shape) {
+            return new ShapeSnapshot(shape, count.sum(), totalNanos.sum(), maxNanos.get(), rows.sum());
+        }
+    }
+
+    @Getter
+    public static class ShapeSnapshot {
+        private final String shape;
+        private final long count;
+        private final double totalMillis;
+        private final double maxMillis;
+        private final double meanMillis;
+        private final long rows;
+
+        ShapeSnapshot(String shape, long count, long totalNanos, long maxNanos, long rows) {
+            this.shape = shape;
+            this.count = count;
+            this.totalMillis = totalNanos / 1_000_000.0;
+            this.maxMillis = maxNanos / 1_000_000.0;
+            this.meanMillis = count == 0 ? 0 : totalMillis / count;
+            this.rows = rows;
+        }
+    }
+
+    @Getter
+    public static class SlowQuery {
+        private final Instant at;
+        private final long elapsedMillis;
+        private final String sql;
+
+        SlowQuery(Instant at, long elapsedMillis, String sql) {
+            this.at = at;
+            this.elapsedMillis = elapsedMillis;
+            this.sql = sql;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.study.config;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * GET /actuator/sqlprofile?top=20&sort=total : 쿼리 모양별 집계 상위 N 개 + 최근 slow 쿼리
+ * sort : total(기본), max, mean, count, rows
+ * DELETE /actuator/sqlprofile : 집계 초기화
+ */
+@Component
+@ConditionalOnProperty(prefix = "member.sql-profiler", name = "enabled", matchIfMissing = true)
+@Endpoint(id = "sqlprofile")
+@RequiredArgsConstructor
+public class SqlProfilerEndpoint {
+
+    private static final int DEFAULT_TOP = 20;
+
+    private final SqlProfiler sqlProfiler;
+
+    @ReadOperation
+    public SqlProfile profile(@Nullable Integer top, @Nullable String sort) {
+        int limit = top == null || top <= 0 ? DEFAULT_TOP : top;
+        return new SqlProfile(sqlProfiler.top(limit, order(sort)), sqlProfiler.slowQueries());
+    }
+
+    @DeleteOperation
+    public void reset() {
+        sqlProfiler.reset();
+    }
+
+    private static Comparator<SqlProfiler.ShapeSnapshot> order(String sort) {
+        if (sort == null) {
+            sort = "total";
+        }
+        switch (sort) {
+            case "max":
+                return Comparator.comparingDouble(SqlProfiler.ShapeSnapshot::getMaxMillis).reversed();
+            case "mean":
+                return Comparator.comparingDouble(SqlProfiler.ShapeSnapshot::getMeanMillis).reversed();
+            case "count":
+                return Comparator.comparingLong(SqlProfiler.ShapeSnapshot::getCount).reversed();
+            case "rows":
+                return Comparator.comparingLong(SqlProfiler.ShapeSnapshot::getRows).reversed();
+            default:
+                return Comparator.comparingDouble(SqlProfiler.ShapeSnapshot::getTotalMillis).reversed();
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class SqlProfile {
+        private final List<SqlProfiler.ShapeSnapshot> shapes;
+        private final List<SqlProfiler.SlowQuery> slowQueries;
+    }
+}
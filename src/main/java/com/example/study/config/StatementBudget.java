@@ -0,0 +1,17 @@
+package com.example.study.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 요청 하나에서 실행할수 있는 최대 SQL 수 (지연로딩으로 나가는 쿼리 포함)
+ * 없으면 member.statement-budget.default 사용, 0 이하면 제한 없음
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface StatementBudget {
+
+    int value();
+}
@@ -0,0 +1,87 @@
+package com.example.study.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 요청마다 StatementScope 를 열어서 SQL 수를 세고 예산(@StatementBudget)을 넘으면 로그 또는 예외
+ * open-in-view 로 응답 직렬화 중에 나가는 지연로딩 쿼리도 같은 스레드라 포함됨
+ * (MemberPageService 처럼 다른 스레드에서 실행하는 쿼리는 포함 안됨)
+ * 비동기 처리(StreamingResponseBody 등)는 요청 스레드가 afterCompletion 없이 반납되므로 afterConcurrentHandlingStarted 에서 닫음
+ */
+@Slf4j
+public class StatementBudgetInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String SCOPE = StatementBudgetInterceptor.class.getName() + ".scope";
+
+    private final int defaultBudget;
+    private final boolean failOnExceed;
+
+    public StatementBudgetInterceptor(int defaultBudget, boolean failOnExceed) {
+        this.defaultBudget = defaultBudget;
+        this.failOnExceed = failOnExceed;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        request.setAttribute(SCOPE, StatementScope.start());
+        return true;
+    }
+
+    //    @ResponseBody 는 postHandle 전에 직렬화가 끝나므로 여기서 확인
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                           ModelAndView modelAndView) {
+        StatementScope scope = (StatementScope) request.getAttribute(SCOPE);
+        int budget = budgetOf(handler);
+        if (scope == null || budget <= 0 || scope.getCount() <= budget) {
+            return;
+        }
+        String message = request.getMethod() + " " + request.getRequestURI()
+                + " exceeded statement budget " + budget + " : " + scope.report();
+        if (failOnExceed) {
+            throw new StatementBudgetExceededException(message);
+        }
+        log.warn(message);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        stop(request);
+    }
+
+    //    비동기 디스패치 때 preHandle 이 다시 불려서 새 범위가 열리고 그건 afterCompletion 에서 닫힘
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        stop(request);
+    }
+
+    private void stop(HttpServletRequest request) {
+        StatementScope scope = (StatementScope) request.getAttribute(SCOPE);
+        if (scope != null) {
+            scope.stop();
+            request.removeAttribute(SCOPE);
+        }
+    }
+
+    private int budgetOf(Object handler) {
+        if (handler instanceof HandlerMethod) {
+            HandlerMethod handlerMethod = (HandlerMethod) handler;
+            StatementBudget budget = handlerMethod.getMethodAnnotation(StatementBudget.class);
+            if (budget == null) {
+                budget = handlerMethod.getBeanType().getAnnotation(StatementBudget.class);
+            }
+            if (budget != null) {
+                return budget.value();
+            }
+        }
+        return defaultBudget;
+    }
+}
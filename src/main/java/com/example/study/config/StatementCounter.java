@@ -0,0 +1,22 @@
+package com.example.study.config;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+
+/**
+ * 실행된 SQL 을 현재 스레드의 StatementScope 에 기록 (범위가 없으면 아무것도 안함)
+ * 배치는 executeBatch 한번을 1 로 셈
+ */
+@Component
+public class StatementCounter extends SimpleJdbcEventListener {
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        if (StatementScope.current() != null) {
+            StatementScope.record(statementInformation.getSql());
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.study.config;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 현재 스레드에서 실행된 SQL 수를 세는 범위 (HTTP 요청 하나, 테스트 메서드 하나 등)
+ * 중첩되면 바깥 범위에도 같이 더해짐
+ * 실행할때는 SQL 문자열 그대로 세고 모양(SqlProfiler.normalize) 으로 묶는건 결과를 볼때만
+ */
+public class StatementScope {
+
+    private static final ThreadLocal<StatementScope> CURRENT = new ThreadLocal<>();
+
+    private final StatementScope parent;
+    private final Map<String, Integer> statements = new HashMap<>();
+    private int count;
+
+    private StatementScope(StatementScope parent) {
+        this.parent = parent;
+    }
+
+    public static StatementScope start() {
+        StatementScope scope = new StatementScope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    public static StatementScope current() {
+        return CURRENT.get();
+    }
+
+    static void record(String sql) {
+        for (StatementScope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.count++;
+            scope.statements.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    public void stop() {
+        if (CURRENT.get() != this) {
+            return;
+        }
+        if (parent == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(parent);
+        }
+    }
+
+    public void reset() {
+        count = 0;
+        statements.clear();
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    //    모양별 실행 횟수 (많은 순)
+    public Map<String, Integer> getShapes() {
+        Map<String, Integer> shapes = new HashMap<>();
+        statements.forEach((sql, times) -> shapes.merge(SqlProfiler.normalize(sql), times, Integer::sum));
+        Map<String, Integer> sorted = new LinkedHashMap<>();
+        shapes.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()))
+                .forEach(entry -> sorted.put(entry.getKey(), entry.getValue()));
+        return sorted;
+    }
+
+    public Optional<Map.Entry<String, Integer>> getMostRepeated() {
+        return getShapes().entrySet().stream().findFirst();
+    }
+
+    public String report() {
+        return getMostRepeated()
+                .map(entry -> count + " statements, most repeated x" + entry.getValue() + " : " + entry.getKey())
+                .orElse(count + " statements");
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.study.config;
+
+import com.example.study.entity.Member;
+import com.example.study.entity.Team;
+import com.example.study.repository.TeamStatsWriter;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.tuple.entity.EntityMetamodel;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.util.Objects;
+
+/**
+ * Team insert / delete, Member insert / delete / 팀 이동(changeTeam) / 나이 변경을 flush 하는 시점에
+ * 같은 커넥션으로 team_stats 반영 (같은 트랜잭션이라 롤백되면 같이 롤백)
+ * HQL/querydsl 벌크 연산은 엔티티 이벤트가 없으므로 TeamStatsWriter.rebuild() 로 맞춤
+ */
+@Component
+@RequiredArgsConstructor
+public class TeamStatsListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private static final String TEAM = "team";
+    private static final String AGE = "age";
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Team) {
+            long teamId = (Long) event.getId();
+            event.getSession().doWork(connection -> TeamStatsWriter.teamCreated(connection, teamId));
+        } else if (event.getEntity() instanceof Member) {
+            Member member = (Member) event.getEntity();
+            Long teamId = teamId(member.getTeam());
+            if (teamId != null) {
+                event.getSession().doWork(connection -> TeamStatsWriter.memberAdded(connection, teamId, member.getAge()));
+            }
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Member)) {
+            return;
+        }
+        EntityMetamodel metamodel = event.getPersister().getEntityMetamodel();
+        int teamIndex = metamodel.getPropertyIndex(TEAM);
+        int ageIndex = metamodel.getPropertyIndex(AGE);
+        Long newTeamId = teamId(event.getState()[teamIndex]);
+        int newAge = (Integer) event.getState()[ageIndex];
+
+        Object[] oldState = event.getOldState();
+        if (oldState == null) {
+//            이전 값을 모르면(detached update) 지금 팀만 새로 계산
+            if (newTeamId != null) {
+                event.getSession().doWork(connection -> {
+                    TeamStatsWriter.teamDeleted(connection, newTeamId);
+                    TeamStatsWriter.memberAdded(connection, newTeamId, newAge);
+                });
+            }
+            return;
+        }
+        Long oldTeamId = teamId(oldState[teamIndex]);
+        int oldAge = (Integer) oldState[ageIndex];
+        if (Objects.equals(oldTeamId, newTeamId) && oldAge == newAge) {
+            return;
+        }
+        event.getSession().doWork(connection -> {
+            if (oldTeamId != null) {
+                TeamStatsWriter.memberRemoved(connection, oldTeamId, oldAge);
+            }
+            if (newTeamId != null) {
+                TeamStatsWriter.memberAdded(connection, newTeamId, newAge);
+            }
+        });
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Team) {
+            long teamId = (Long) event.getId();
+            event.getSession().doWork(connection -> TeamStatsWriter.teamDeleted(connection, teamId));
+        } else if (event.getEntity() instanceof Member) {
+            EntityMetamodel metamodel = event.getPersister().getEntityMetamodel();
+            Object[] state = event.getDeletedState();
+            Long teamId = teamId(state[metamodel.getPropertyIndex(TEAM)]);
+            int age = (Integer) state[metamodel.getPropertyIndex(AGE)];
+            if (teamId != null) {
+                event.getSession().doWork(connection -> TeamStatsWriter.memberRemoved(connection, teamId, age));
+            }
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    //    5.6 까지는 추상 메서드라 구현은 남겨둠 (위 메서드로 위임)
+    @Override
+    @Deprecated
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return requiresPostCommitHandling(persister);
+    }
+
+    //    프록시여도 id 는 초기화 없이 꺼냄
+    private static Long teamId(Object team) {
+        return team == null ? null : ((Team) team).getId();
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.study.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Value("${member.statement-budget.enabled:true}")
+    private boolean statementBudgetEnabled;
+
+    @Value("${member.statement-budget.default:50}")
+    private int defaultStatementBudget;
+
+    @Value("${member.statement-budget.fail:false}")
+    private boolean failOnStatementBudget;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (statementBudgetEnabled) {
+            registry.addInterceptor(new StatementBudgetInterceptor(defaultStatementBudget, failOnStatementBudget));
+        }
+    }
+}
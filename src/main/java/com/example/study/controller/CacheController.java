@@ -0,0 +1,69 @@
+package com.example.study.controller;
+
+import com.example.study.dto.CacheStatsDto;
+import com.example.study.entity.Team;
+import com.example.study.repository.MemberCountCache;
+import com.example.study.repository.MemberSearchTemplates;
+import com.example.study.service.MemberSearchService;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.persistence.EntityManagerFactory;
+
+@RestController
+@RequiredArgsConstructor
+public class CacheController {
+
+    private final MemberCountCache memberCountCache;
+    private final MemberSearchTemplates memberSearchTemplates;
+    private final MemberSearchService memberSearchService;
+    private final EntityManagerFactory entityManagerFactory;
+
+    //    카운트 캐시 히트/미스 확인용
+    @GetMapping("/caches/member-count")
+    public CacheStatsDto memberCountCacheStats() {
+        CacheStats stats = memberCountCache.stats();
+        return new CacheStatsDto("member-count", memberCountCache.size(),
+                stats.hitCount(), stats.missCount(), stats.hitRate(), stats.evictionCount());
+    }
+
+    //    /v1 ~ /v3 검색결과 캐시
+    @GetMapping("/caches/member-search")
+    public CacheStatsDto memberSearchCacheStats() {
+        CacheStats stats = memberSearchService.stats();
+        return new CacheStatsDto("member-search", memberSearchService.size(),
+                stats.hitCount(), stats.missCount(), stats.hitRate(), stats.evictionCount());
+    }
+
+    //    검색 쿼리 템플릿 재사용 횟수 (hit = 재사용, miss = 새로 만든 횟수)
+    @GetMapping("/caches/query-templates")
+    public CacheStatsDto queryTemplateStats() {
+        long reuses = memberSearchTemplates.getReuseCount();
+        long builds = memberSearchTemplates.getBuildCount();
+        double hitRate = reuses + builds == 0 ? 1.0 : (double) reuses / (reuses + builds);
+        return new CacheStatsDto("query-templates", builds, reuses, builds, hitRate, 0);
+    }
+
+    //    Team 2차 캐시 통계
+    @GetMapping("/caches/team")
+    public CacheStatsDto teamCacheStats() {
+        CacheRegionStatistics stats = entityManagerFactory.unwrap(SessionFactory.class)
+                .getStatistics()
+                .getDomainDataRegionStatistics(Team.class.getName());
+        long requests = stats.getHitCount() + stats.getMissCount();
+        double hitRate = requests == 0 ? 1.0 : (double) stats.getHitCount() / requests;
+        return new CacheStatsDto("team", stats.getElementCountInMemory(),
+                stats.getHitCount(), stats.getMissCount(), hitRate, 0);
+    }
+
+    //    DB 를 직접 수정한 경우 등 수동으로 Team 2차 캐시 비우기
+    @DeleteMapping("/caches/team")
+    public void evictTeamCache() {
+        entityManagerFactory.getCache().evict(Team.class);
+    }
+}
@@ -1,37 +1,90 @@
 package com.example.study.controller;
 
+import com.example.study.config.StatementBudget;
+import com.example.study.dto.CursorPage;
+import com.example.study.dto.MemberField;
 import com.example.study.dto.MemberTeamDto;
 import com.example.study.dto.MemberTeamSearchCondition;
-import com.example.study.repository.MemberJPARepository;
+import com.example.study.dto.SearchPage;
 import com.example.study.repository.MemberRepository;
+import com.example.study.service.MemberExportService;
+import com.example.study.service.MemberPageService;
+import com.example.study.service.MemberSearchService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
 
-    private final MemberJPARepository memberJPARepository;
+    private static final int MAX_CURSOR_PAGE_SIZE = 1000;
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final MemberRepository memberRepository;
+    private final MemberExportService memberExportService;
+    private final MemberSearchService memberSearchService;
+    private final MemberPageService memberPageService;
 
     @GetMapping("/v1/members")
+    @StatementBudget(1)
     public List<MemberTeamDto> searchMemberv1(MemberTeamSearchCondition memberTeamSearchCondition) {
-        return memberJPARepository.search(memberTeamSearchCondition);
+        return memberSearchService.search(memberTeamSearchCondition);
     }
 
     @GetMapping("/v2/members")
+    @StatementBudget(2)
     public Page<MemberTeamDto> searchMemberv2(MemberTeamSearchCondition memberTeamSearchCondition, Pageable pageable) {
-        return memberRepository.searchPageSimple(memberTeamSearchCondition,pageable);
+        return memberSearchService.searchPageSimple(memberTeamSearchCondition,pageable);
     }
 
     @GetMapping("/v3/members")
+    @StatementBudget(2)
     public Page<MemberTeamDto> searchMemberv3(MemberTeamSearchCondition memberTeamSearchCondition, Pageable pageable) {
-        return memberRepository.searchPageComplex(memberTeamSearchCondition,pageable);
+        return memberSearchService.searchPageComplex(memberTeamSearchCondition,pageable);
+    }
+
+//    v3 와 같은 결과를 컨텐츠/카운트 동시 실행으로 조회, 카운트가 늦으면 totalKnown = false
+    @GetMapping("/v5/members")
+    public SearchPage<MemberTeamDto> searchMemberv5(MemberTeamSearchCondition memberTeamSearchCondition, Pageable pageable) {
+        return memberPageService.searchPage(memberTeamSearchCondition, pageable);
+    }
+
+//    키셋 페이징 : 응답의 nextCursor 를 다음 요청의 cursor 로 넘김
+    @GetMapping("/v4/members")
+    @StatementBudget(1)
+    public CursorPage<MemberTeamDto> searchMemberv4(MemberTeamSearchCondition memberTeamSearchCondition,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(defaultValue = "20") int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        return memberRepository.searchByCursor(memberTeamSearchCondition, CursorPage.decode(cursor), pageSize);
+    }
+
+//    fields=username,age 처럼 필요한 필드만 조회 (없으면 전체), 팀 필드/팀명 조건이 없으면 team 조인 안함
+    @GetMapping("/members")
+    @StatementBudget(1)
+    public List<Map<String, Object>> searchMembers(MemberTeamSearchCondition memberTeamSearchCondition,
+                                                   @RequestParam(required = false) String fields,
+                                                   Pageable pageable) {
+        return memberRepository.searchFields(memberTeamSearchCondition, MemberField.parse(fields), pageable);
+    }
+
+//    전체 검색결과를 NDJSON 스트리밍으로 내려줌 (대용량 export)
+    @GetMapping("/members/export")
+    public ResponseEntity<StreamingResponseBody> exportMembers(MemberTeamSearchCondition memberTeamSearchCondition) {
+        StreamingResponseBody body = out -> memberExportService.exportNdjson(memberTeamSearchCondition, out);
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .body(body);
     }
 }
@@ -0,0 +1,36 @@
+package com.example.study.controller;
+
+import com.example.study.dto.AgeStatsDto;
+import com.example.study.service.MemberAnalyticsSnapshot;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * 리포트 화면 폴링용 나이 집계 (DB 가 아니라 메모리 스냅샷에서 계산)
+ */
+@RestController
+@RequiredArgsConstructor
+public class MemberStatsController {
+
+    private final MemberAnalyticsSnapshot memberAnalyticsSnapshot;
+
+    @GetMapping("/members/stats/age")
+    public AgeStatsDto ageStats() {
+        return memberAnalyticsSnapshot.ageStats();
+    }
+
+    @GetMapping("/members/stats/age-by-team")
+    public List<AgeStatsDto> ageStatsByTeamName() {
+        return memberAnalyticsSnapshot.ageStatsByTeamName();
+    }
+
+    //    벌크 연산 직후 등 바로 맞추고 싶을때
+    @PostMapping("/members/stats/reload")
+    public void reload() {
+        memberAnalyticsSnapshot.reload();
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.study.controller;
+
+import com.example.study.service.MemberDataSeeder;
+import com.example.study.service.MemberSeedSpec;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * seed 프로필로 띄우면 member.seed.* 설정대로 대량 데이터 생성
+ * ex) --spring.profiles.active=seed --member.seed.member-count=10000000
+ */
+@Profile("seed")
+@Component
+@RequiredArgsConstructor
+public class SeedMember implements ApplicationRunner {
+
+    private final MemberDataSeeder memberDataSeeder;
+    private final Environment environment;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        MemberSeedSpec spec = Binder.get(environment)
+                .bind("member.seed", MemberSeedSpec.class)
+                .orElseGet(MemberSeedSpec::new);
+        memberDataSeeder.seed(spec);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.study.controller;
+
+import com.example.study.config.StatementBudget;
+import com.example.study.dto.TeamMembersDto;
+import com.example.study.dto.TeamNotFoundException;
+import com.example.study.dto.TeamStatsDto;
+import com.example.study.repository.TeamRepository;
+import com.example.study.repository.TeamStatsRepository;
+import com.example.study.repository.TeamStatsWriter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+
+    private final TeamRepository teamRepository;
+    private final TeamStatsRepository teamStatsRepository;
+    private final TeamStatsWriter teamStatsWriter;
+
+//    팀 id 페이징 + members 조회 + 카운트
+    @GetMapping("/teams")
+    @StatementBudget(3)
+    public Page<TeamMembersDto> teams(Pageable pageable) {
+        return teamRepository.findPageWithMembers(pageable).map(TeamMembersDto::new);
+    }
+
+//    회원을 읽지 않고 team_stats 한 행만 조회
+    @GetMapping("/teams/{id}/stats")
+    @StatementBudget(1)
+    public TeamStatsDto stats(@PathVariable Long id) {
+        return teamStatsRepository.findById(id)
+                .map(TeamStatsDto::new)
+                .orElseThrow(() -> new TeamNotFoundException(id));
+    }
+
+    //    벌크 연산 직후 등 바로 맞추고 싶을때
+    @PostMapping("/teams/stats/rebuild")
+    public long rebuildStats() {
+        return teamStatsWriter.rebuild();
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.study.dto;
+
+import lombok.Data;
+
+/**
+ * count / sum / avg / max / min (age)
+ * 대상이 없으면 SQL 집계와 같이 avg, max, min 은 null
+ */
+@Data
+public class AgeStatsDto {
+
+    //    전체 집계면 null
+    private String teamName;
+    private long count;
+    private long sum;
+    private Double avg;
+    private Integer max;
+    private Integer min;
+
+    public AgeStatsDto(String teamName, long count, long sum, int max, int min) {
+        this.teamName = teamName;
+        this.count = count;
+        this.sum = sum;
+        this.avg = count == 0 ? null : (double) sum / count;
+        this.max = count == 0 ? null : max;
+        this.min = count == 0 ? null : min;
+    }
+}
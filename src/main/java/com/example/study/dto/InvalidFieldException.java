@@ -0,0 +1,12 @@
+package com.example.study.dto;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidFieldException extends IllegalArgumentException {
+
+    public InvalidFieldException(String field) {
+        super("invalid field: " + field);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.study.dto;
+
+import lombok.Getter;
+import org.springframework.util.StringUtils;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * /members?fields=username,age 로 고를수 있는 컬럼 (이름은 MemberTeamDto 프로퍼티와 같음)
+ * teamName 만 team 조인이 필요함 (teamId 는 member.team_id 컬럼으로 조회)
+ */
+@Getter
+public enum MemberField {
+    MEMBER_ID("memberId", false),
+    USERNAME("username", false),
+    AGE("age", false),
+    TEAM_ID("teamId", false),
+    TEAM_NAME("teamName", true);
+
+    private final String fieldName;
+    private final boolean teamJoin;
+
+    MemberField(String fieldName, boolean teamJoin) {
+        this.fieldName = fieldName;
+        this.teamJoin = teamJoin;
+    }
+
+    //    없으면 전체 필드
+    public static Set<MemberField> parse(String fields) {
+        if (!StringUtils.hasText(fields)) {
+            return EnumSet.allOf(MemberField.class);
+        }
+        Set<MemberField> result = EnumSet.noneOf(MemberField.class);
+        for (String name : StringUtils.commaDelimitedListToStringArray(fields)) {
+            result.add(of(name.trim()));
+        }
+        return result;
+    }
+
+    private static MemberField of(String fieldName) {
+        for (MemberField field : values()) {
+            if (field.fieldName.equals(fieldName)) {
+                return field;
+            }
+        }
+        throw new InvalidFieldException(fieldName);
+    }
+}
@@ -10,4 +10,7 @@ public class MemberTeamSearchCondition {
     private String teamName;
     private Integer ageGoe;
     private Integer ageLoe;
+//    검색어 자동완성용 : 앞부분 일치(username 인덱스), 부분 일치(대소문자 무시, trigram 인덱스)
+    private String usernameStartsWith;
+    private String usernameContains;
 }
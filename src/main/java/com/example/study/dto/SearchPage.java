@@ -0,0 +1,40 @@
+package com.example.study.dto;
+
+import lombok.Getter;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * 토탈 카운트를 모를수도 있는 페이지 결과
+ * 카운트가 제한시간 안에 끝나지 않으면 totalElements 는 null, totalKnown 은 false
+ */
+@Getter
+public class SearchPage<T> {
+
+    private final List<T> content;
+    private final int number;
+    private final int size;
+    private final Long totalElements;
+    private final boolean totalKnown;
+    private final boolean hasNext;
+
+    private SearchPage(List<T> content, Pageable pageable, Long totalElements, boolean hasNext) {
+        this.content = content;
+        this.number = pageable.getPageNumber();
+        this.size = pageable.getPageSize();
+        this.totalElements = totalElements;
+        this.totalKnown = totalElements != null;
+        this.hasNext = hasNext;
+    }
+
+    public static <T> SearchPage<T> of(List<T> content, Pageable pageable, long totalElements) {
+        return new SearchPage<>(content, pageable, totalElements,
+                pageable.getOffset() + content.size() < totalElements);
+    }
+
+    //    토탈을 모르면 다음 페이지 여부는 따로 확인한 값(존재 확인 쿼리)을 받음
+    public static <T> SearchPage<T> withUnknownTotal(List<T> content, Pageable pageable, boolean hasNext) {
+        return new SearchPage<>(content, pageable, null, hasNext);
+    }
+}
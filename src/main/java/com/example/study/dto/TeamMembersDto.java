@@ -0,0 +1,23 @@
+package com.example.study.dto;
+
+import com.example.study.entity.Team;
+import lombok.Data;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Data
+public class TeamMembersDto {
+    private Long teamId;
+    private String name;
+    private List<MemberDto> members;
+
+//    members 는 초기화된 상태로 넘어와야 함 (TeamRepository.findPageWithMembers)
+    public TeamMembersDto(Team team) {
+        this.teamId = team.getId();
+        this.name = team.getName();
+        this.members = team.getMembers().stream()
+                .map(member -> new MemberDto(member.getUsername(), member.getAge()))
+                .collect(Collectors.toList());
+    }
+}
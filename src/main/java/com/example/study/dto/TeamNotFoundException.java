@@ -0,0 +1,12 @@
+package com.example.study.dto;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class TeamNotFoundException extends RuntimeException {
+
+    public TeamNotFoundException(Long teamId) {
+        super("team not found: " + teamId);
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.study.dto;
+
+import com.example.study.entity.TeamStats;
+import lombok.Data;
+
+@Data
+public class TeamStatsDto {
+    private Long teamId;
+    private long memberCount;
+    private long ageSum;
+    private Double avgAge;
+    private Integer minAge;
+    private Integer maxAge;
+
+    public TeamStatsDto(TeamStats stats) {
+        this.teamId = stats.getTeamId();
+        this.memberCount = stats.getMemberCount();
+        this.ageSum = stats.getAgeSum();
+        this.avgAge = memberCount == 0 ? null : (double) ageSum / memberCount;
+        this.minAge = stats.getMinAge();
+        this.maxAge = stats.getMaxAge();
+    }
+}
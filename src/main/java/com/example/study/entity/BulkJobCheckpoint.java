@@ -0,0 +1,68 @@
+package com.example.study.entity;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import java.time.LocalDateTime;
+
+/**
+ * 청크 단위 벌크 작업 진행상황
+ * 청크와 같은 트랜잭션에서 갱신되므로 실패하면 마지막으로 커밋된 청크 다음부터 다시 시작
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class BulkJobCheckpoint {
+
+    public enum Status {
+        RUNNING, FAILED, COMPLETED
+    }
+
+    @Id
+    private String jobName;
+
+    //    여기까지(포함) 처리한 member_id
+    private Long lastId;
+    //    시작할때의 최대 member_id (이후에 들어온 회원은 대상 아님)
+    private Long maxId;
+    private long affectedRows;
+    private long chunks;
+
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    private LocalDateTime updatedAt;
+
+    public BulkJobCheckpoint(String jobName, Long lastId, Long maxId) {
+        this.jobName = jobName;
+        this.lastId = lastId;
+        this.maxId = maxId;
+        this.status = lastId >= maxId ? Status.COMPLETED : Status.RUNNING;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public void chunkDone(long upperId, long rows) {
+        this.lastId = upperId;
+        this.affectedRows += rows;
+        this.chunks++;
+        this.status = upperId >= maxId ? Status.COMPLETED : Status.RUNNING;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public void fail() {
+        this.status = Status.FAILED;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public void resume() {
+        this.status = Status.RUNNING;
+        this.updatedAt = LocalDateTime.now();
+    }
+}
@@ -1,7 +1,11 @@
 package com.example.study.entity;
 
+import com.example.study.config.PooledSequenceGenerator;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
@@ -13,6 +17,8 @@ import javax.persistence.Id;
 public class HelloEntity {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "hello_entity_seq")
+    @GenericGenerator(name = "hello_entity_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "hello_entity_seq"))
     private Long id;
 }
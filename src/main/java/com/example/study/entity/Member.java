@@ -1,10 +1,20 @@
 package com.example.study.entity;
 
+import com.example.study.config.PooledSequenceGenerator;
 import lombok.*;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.*;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_member_username", columnList = "username"),
+        @Index(name = "idx_member_age", columnList = "age"),
+        @Index(name = "idx_member_team_age", columnList = "team_id, age")
+})
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
@@ -12,7 +22,9 @@ import javax.persistence.*;
 public class Member {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "member_seq")
+    @GenericGenerator(name = "member_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "member_seq"))
     @Column(name = "member_id")
     private Long id;
 
@@ -43,7 +55,14 @@ public class Member {
 
     }
 
+    //    연관관계 편의 메서드 : 팀 members 를 초기화하지 않음 (큰 팀으로 옮길때 회원 전체를 읽지 않도록)
+    //    remove 는 항상 컬렉션을 초기화하므로 이미 읽은 컬렉션일때만 빼고,
+    //    add 는 초기화 안된 inverse bag 이면 하이버네이트가 큐에 쌓아뒀다가 초기화될때 반영
+    //    (members 를 Set 이나 @OrderColumn List 로 바꾸면 add 도 초기화하므로 MemberStatementCountTest 확인)
     public void changeTeam(Team team) {
+        if (this.team != null && Hibernate.isInitialized(this.team) && Hibernate.isInitialized(this.team.getMembers())) {
+            this.team.getMembers().remove(this);
+        }
         this.team = team;
         team.getMembers().add(this);
     }
@@ -0,0 +1,39 @@
+package com.example.study.entity;
+
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import java.io.Serializable;
+
+/**
+ * username 부분검색용 trigram 인덱스 (소문자 3글자 조각 -> member_id)
+ * PK 가 (gram, member_id) 라서 gram 으로 바로 찾음
+ * JDBC 로만 쓰고 (MemberUsernameIndex) 조회는 검색 쿼리의 서브쿼리로만 사용
+ */
+@Entity
+@IdClass(MemberUsernameGram.Key.class)
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class MemberUsernameGram {
+
+    @Id
+    @Column(length = 12)
+    private String gram;
+
+    @Id
+    @Column(name = "member_id")
+    private Long memberId;
+
+    @EqualsAndHashCode
+    @NoArgsConstructor
+    public static class Key implements Serializable {
+        private String gram;
+        private Long memberId;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.study.entity;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/**
+ * 팀별 회원 수 / 나이 합계 / 최소 / 최대 (조회 전용)
+ * TeamStatsListener 가 Member 저장/삭제/팀 이동을 flush 하는 시점에 같은 트랜잭션에서 SQL 로 갱신
+ * 회원이 없으면 min_age, max_age 는 null
+ */
+@Entity
+@Immutable
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class TeamStats {
+
+    @Id
+    @Column(name = "team_id")
+    private Long teamId;
+
+    private long memberCount;
+    private long ageSum;
+    private Integer minAge;
+    private Integer maxAge;
+}
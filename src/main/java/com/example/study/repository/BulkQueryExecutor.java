@@ -0,0 +1,87 @@
+package com.example.study.repository;
+
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.jpa.impl.JPADeleteClause;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.type.EntityType;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * querydsl 벌크 update / delete 실행
+ * 실행 전에 flush (아직 안나간 변경이 벌크 결과에 덮어써지지 않도록)
+ * 실행 후에는 em.clear() 대신 영속성 컨텍스트에서 대상 엔티티 타입만 detach
+ * + 그 타입을 담고 있는 초기화된 컬렉션의 주인 엔티티 detach (컬렉션만 따로 떼어낼수 없음)
+ * 2차 캐시 / 쿼리 캐시는 하이버네이트가 벌크 쿼리의 테이블 기준으로 무효화함 (BulkOperationCleanupAction)
+ *
+ * ex) bulkQueryExecutor.update(QMember.member, update -> update.set(QMember.member.age, QMember.member.age.add(1)))
+ */
+@Component
+@RequiredArgsConstructor
+public class BulkQueryExecutor {
+
+    private final JPAQueryFactory jpaQueryFactory;
+    private final EntityManager em;
+
+    public long update(EntityPath<?> entity, UnaryOperator<JPAUpdateClause> statement) {
+        return execute(entity.getType(), () -> statement.apply(jpaQueryFactory.update(entity)).execute());
+    }
+
+    public long delete(EntityPath<?> entity, UnaryOperator<JPADeleteClause> statement) {
+        return execute(entity.getType(), () -> statement.apply(jpaQueryFactory.delete(entity)).execute());
+    }
+
+    private long execute(Class<?> entityType, LongSupplier statement) {
+        em.flush();
+        long rows = statement.getAsLong();
+        detachAffected(entityType);
+        return rows;
+    }
+
+    private void detachAffected(Class<?> entityType) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        PersistenceContext persistenceContext = session.getPersistenceContextInternal();
+
+//        순회중에 detach 하면 안되므로 먼저 모아둠
+        List<Object> affected = new ArrayList<>();
+        for (Map.Entry<Object, EntityEntry> entry : persistenceContext.reentrantSafeEntityEntries()) {
+            if (entityType.isInstance(entry.getKey())) {
+                affected.add(entry.getKey());
+            }
+        }
+        persistenceContext.forEachCollectionEntry((collection, entry) -> {
+            CollectionPersister persister = entry.getLoadedPersister();
+            if (persister != null && collection.wasInitialized() && collection.getOwner() != null
+                    && containsEntityType(persister, entityType, session)) {
+                affected.add(collection.getOwner());
+            }
+        }, false);
+
+        for (Object entity : affected) {
+            if (em.contains(entity)) {
+                em.detach(entity);
+            }
+        }
+    }
+
+    private static boolean containsEntityType(CollectionPersister persister, Class<?> entityType, SessionImplementor session) {
+        if (!persister.getElementType().isEntityType()) {
+            return false;
+        }
+        String elementEntity = ((EntityType) persister.getElementType()).getAssociatedEntityName(session.getFactory());
+        Class<?> elementClass = session.getFactory().getMetamodel().entityPersister(elementEntity).getMappedClass();
+        return entityType.isAssignableFrom(elementClass) || elementClass.isAssignableFrom(entityType);
+    }
+}
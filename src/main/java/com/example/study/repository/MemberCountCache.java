@@ -0,0 +1,66 @@
+package com.example.study.repository;
+
+import com.example.study.config.ReplicaLagMonitor;
+import com.example.study.dto.MemberTeamSearchCondition;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * searchPageComplex 토탈 카운트 캐시
+ * 검색조건별로 카운트를 저장하고 member/team 에 쓰기가 생기면 전부 비움
+ * 쓰기 직후(레플리카 max-lag 이내)에는 카운트가 레플리카에서 나온 옛날 값일수 있으므로 저장하지 않음
+ */
+@Component
+public class MemberCountCache implements MemberWriteListener {
+
+    private final Cache<MemberSearchKey, Long> cache;
+    private final ObjectProvider<ReplicaLagMonitor> replicaLagMonitor;
+
+    public MemberCountCache(@Value("${member.count-cache.maximum-size:1000}") long maximumSize,
+                            @Value("${member.count-cache.expire-after-write:10m}") Duration expireAfterWrite,
+                            ObjectProvider<ReplicaLagMonitor> replicaLagMonitor) {
+        this.replicaLagMonitor = replicaLagMonitor;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    public long get(MemberTeamSearchCondition condition, LongSupplier countQuery) {
+        ReplicaLagMonitor monitor = replicaLagMonitor.getIfAvailable();
+        if (monitor != null && monitor.isRecentlyWritten()) {
+            return countQuery.getAsLong();
+        }
+        return cache.get(MemberSearchKey.of(condition), key -> countQuery.getAsLong());
+    }
+
+    //    캐시에 없으면 null
+    public Long getIfPresent(MemberTeamSearchCondition condition) {
+        return cache.getIfPresent(MemberSearchKey.of(condition));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void onMemberWrite() {
+        invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+}
@@ -11,6 +11,7 @@ import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import javax.persistence.EntityManager;
@@ -37,6 +38,7 @@ public class MemberJPARepository {
         return Optional.ofNullable(findMember);
     }
 
+    @Transactional(readOnly = true)
     public List<Member> findAll() {
         return em.createQuery("select m from Member m", Member.class)
                 .getResultList();
@@ -48,6 +50,7 @@ public class MemberJPARepository {
                 .fetch();
     }
 
+    @Transactional(readOnly = true)
     public List<Member> findByUsername(String username) {
         return em.createQuery("select m from Member m where m.username = :username ", Member.class)
                 .setParameter("username", username)
@@ -61,6 +64,7 @@ public class MemberJPARepository {
                 .fetch();
     }
 
+    @Transactional(readOnly = true)
     public List<MemberTeamDto> searchByBuilder(MemberTeamSearchCondition memberTeamSearchCondition) {
 
         BooleanBuilder booleanBuilder = new BooleanBuilder();
@@ -80,32 +84,31 @@ public class MemberJPARepository {
             booleanBuilder.and(QMember.member.age.loe(memberTeamSearchCondition.getAgeLoe()));
         }
 
-        return queryFactory
+        return MemberTeamJoins.joinTeam(queryFactory
                 .select(new QMemberTeamDto(
                         QMember.member.id.as("memberid"),
                         QMember.member.username,
                         QMember.member.age,
                         QTeam.team.id.as("teamId"),
                         QTeam.team.name.as("teamName")))
-                .from(QMember.member)
-                .leftJoin(QMember.member.team, QTeam.team)
+                .from(QMember.member), memberTeamSearchCondition.getTeamName())
                 .where(booleanBuilder)
                 .fetch();
     }
 
 //    빌더부분 달라짐 (용도에따라)
+    @Transactional(readOnly = true)
     public List<MemberTeamDto> search(MemberTeamSearchCondition memberTeamSearchCondition) {
 
 
-        return queryFactory
+        return MemberTeamJoins.joinTeam(queryFactory
                 .select(new QMemberTeamDto(
                         QMember.member.id.as("memberid"),
                         QMember.member.username,
                         QMember.member.age,
                         QTeam.team.id.as("teamId"),
                         QTeam.team.name.as("teamName")))
-                .from(QMember.member)
-                .leftJoin(QMember.member.team, QTeam.team)
+                .from(QMember.member), memberTeamSearchCondition.getTeamName())
                 .where(
                         usernameEq(memberTeamSearchCondition.getUsername()),
                         teamNameEq(memberTeamSearchCondition.getTeamName()),
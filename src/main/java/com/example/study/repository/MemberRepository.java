@@ -3,11 +3,13 @@ package com.example.study.repository;
 import com.example.study.entity.Member;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
 public interface MemberRepository extends JpaRepository<Member, Long> , MemberRepositoryCustom {
 
+    @Transactional(readOnly = true)
     List<Member> findByUsername(String username);
 
 
@@ -1,16 +1,29 @@
 package com.example.study.repository;
 
+import com.example.study.dto.CursorPage;
+import com.example.study.dto.MemberField;
 import com.example.study.dto.MemberTeamDto;
 import com.example.study.dto.MemberTeamSearchCondition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 public interface MemberRepositoryCustom {
 //    검색기능
     List<MemberTeamDto> search(MemberTeamSearchCondition condition);
     Page<MemberTeamDto> searchPageSimple(MemberTeamSearchCondition condition, Pageable pageable);
     Page<MemberTeamDto> searchPageComplex(MemberTeamSearchCondition condition, Pageable pageable);
+//    키셋 페이징 (offset 없이 마지막 member_id 다음부터 조회)
+    CursorPage<MemberTeamDto> searchByCursor(MemberTeamSearchCondition condition, Long lastMemberId, int size);
+//    대용량 내보내기용 (forward-only 커서, 사용후 반드시 close)
+    Stream<MemberTeamDto> streamSearch(MemberTeamSearchCondition condition);
+//    요청한 필드만 조회 (필드명 -> 값), 팀 필드/팀명 조건이 없으면 team 조인 안함
+    List<Map<String, Object>> searchFields(MemberTeamSearchCondition condition, Set<MemberField> fields, Pageable pageable);
+//    조건에 맞는 회원 중 member_id 구간 안의 회원을 update 한번으로 teamId 팀으로 이동 (팀 통계도 같은 트랜잭션에서 반영)
+    long reassignTeam(MemberTeamSearchCondition condition, Long teamId, long fromMemberIdExclusive, long toMemberIdInclusive);
 
 }
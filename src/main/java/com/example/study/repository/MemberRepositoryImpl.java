@@ -1,122 +1,271 @@
 package com.example.study.repository;
 
+import com.example.study.dto.CursorPage;
+import com.example.study.dto.MemberField;
 import com.example.study.dto.MemberTeamDto;
 import com.example.study.dto.MemberTeamSearchCondition;
 import com.example.study.dto.QMemberTeamDto;
-import com.example.study.entity.Member;
 import com.example.study.entity.QMember;
 import com.example.study.entity.QTeam;
-import com.querydsl.core.QueryResults;
+import com.example.study.entity.Team;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Expression;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.jpa.JPAExpressions;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.jpa.QueryHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 public class MemberRepositoryImpl implements MemberRepositoryCustom{
     /**
      * 실제로 사용하게 될 부분
      */
 
+    private static final int STREAM_FETCH_SIZE = 1000;
+
     private final JPAQueryFactory jpaQueryFactory;
+    private final MemberCountCache memberCountCache;
+    private final MemberSearchTemplates memberSearchTemplates;
+    private final MemberRepositoryMetrics memberRepositoryMetrics;
+    private final TeamStatsWriter teamStatsWriter;
+    private final BulkQueryExecutor bulkQueryExecutor;
+    private final EntityManager em;
 
 //    스프링 빈에 등록되서 생성자로 바로 만들수있음
-    public MemberRepositoryImpl(JPAQueryFactory jpaQueryFactory) {
+    public MemberRepositoryImpl(JPAQueryFactory jpaQueryFactory, MemberCountCache memberCountCache,
+                                MemberSearchTemplates memberSearchTemplates,
+                                MemberRepositoryMetrics memberRepositoryMetrics,
+                                TeamStatsWriter teamStatsWriter, BulkQueryExecutor bulkQueryExecutor,
+                                EntityManager em) {
         this.jpaQueryFactory = jpaQueryFactory;
+        this.memberCountCache = memberCountCache;
+        this.memberSearchTemplates = memberSearchTemplates;
+        this.memberRepositoryMetrics = memberRepositoryMetrics;
+        this.teamStatsWriter = teamStatsWriter;
+        this.bulkQueryExecutor = bulkQueryExecutor;
+        this.em = em;
     }
 
+//    search / searchPage* 는 쿼리 템플릿(조건 조합별로 미리 변환된 JPQL)을 재사용
+//    읽기 전용 트랜잭션이라 레플리카가 설정되어 있으면 레플리카에서 조회
     @Override
+    @Transactional(readOnly = true)
     public List<MemberTeamDto> search(MemberTeamSearchCondition memberTeamSearchCondition) {
-        return jpaQueryFactory
-                .select(new QMemberTeamDto(
-                        QMember.member.id.as("memberid"),
-                        QMember.member.username,
-                        QMember.member.age,
-                        QTeam.team.id.as("teamId"),
-                        QTeam.team.name.as("teamName")))
-                .from(QMember.member)
-                .leftJoin(QMember.member.team, QTeam.team)
-                .where(
-                        usernameEq(memberTeamSearchCondition.getUsername()),
-                        teamNameEq(memberTeamSearchCondition.getTeamName()),
-                        ageGoe(memberTeamSearchCondition.getAgeGoe()),
-                        ageLoe(memberTeamSearchCondition.getAgeLoe())
-                )
-                .fetch();
+        return memberSearchTemplates.fetch(memberTeamSearchCondition, null);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<MemberTeamDto> searchPageSimple(MemberTeamSearchCondition condition, Pageable pageable) {
-        QueryResults<MemberTeamDto> results = jpaQueryFactory
+//        컨텐츠 + 토탈 카운트를 항상 같이 조회
+        List<MemberTeamDto> content = memberSearchTemplates.fetch(condition, pageable);
+        long total = memberSearchTemplates.count(condition);
+
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<MemberTeamDto> searchPageComplex(MemberTeamSearchCondition condition, Pageable pageable) {
+        List<MemberTeamDto> results = memberSearchTemplates.fetch(condition, pageable);
+
+//        카운트가 필요 없는 경우(첫 페이지인데 컨텐츠가 페이지 크기보다 작을때 등)는 카운트 쿼리 생략
+//        같은 조건의 카운트는 캐시에서 가져옴 (member/team 쓰기 발생시 무효화)
+//        카운트 생략 비율은 member.repository.count.queries 메트릭으로 확인
+        boolean[] counted = {false};
+        Page<MemberTeamDto> page = PageableExecutionUtils.getPage(results, pageable, () -> {
+            counted[0] = true;
+            return memberCountCache.get(condition, () -> memberSearchTemplates.count(condition));
+        });
+        memberRepositoryMetrics.countQuery(counted[0]);
+        return page;
+    }
+
+    @Override
+    public CursorPage<MemberTeamDto> searchByCursor(MemberTeamSearchCondition condition, Long lastMemberId, int size) {
+//        PK 인덱스로 바로 시작점을 찾기 때문에 몇번째 페이지든 비용이 같음
+//        다음 페이지 존재 여부 확인용으로 하나 더 조회
+        List<MemberTeamDto> results = MemberTeamJoins.joinTeam(jpaQueryFactory
                 .select(new QMemberTeamDto(
                         QMember.member.id.as("memberid"),
                         QMember.member.username,
                         QMember.member.age,
                         QTeam.team.id.as("teamId"),
                         QTeam.team.name.as("teamName")))
-                .from(QMember.member)
-                .leftJoin(QMember.member.team, QTeam.team)
+                .from(QMember.member), condition.getTeamName())
                 .where(
+                        memberIdGt(lastMemberId),
                         usernameEq(condition.getUsername()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
+                        ageLoe(condition.getAgeLoe()),
+                        usernameStartsWith(condition.getUsernameStartsWith()),
+                        usernameContains(condition.getUsernameContains())
                 )
-//                offset 시작점
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetchResults();
+                .orderBy(QMember.member.id.asc())
+                .limit(size + 1)
+                .fetch();
 
-        List<MemberTeamDto> content = results.getResults();
-        long total = results.getTotal();
+        boolean hasNext = results.size() > size;
+        List<MemberTeamDto> content = hasNext ? results.subList(0, size) : results;
+        Long lastId = content.isEmpty() ? null : content.get(content.size() - 1).getMemberId();
 
-        return new PageImpl<>(content, pageable, total);
+        return new CursorPage<>(content, size, hasNext, lastId);
     }
 
     @Override
-    public Page<MemberTeamDto> searchPageComplex(MemberTeamSearchCondition condition, Pageable pageable) {
-        List<MemberTeamDto> results = jpaQueryFactory
+    public Stream<MemberTeamDto> streamSearch(MemberTeamSearchCondition condition) {
+//        리스트로 한번에 올리지 않고 fetchSize 만큼씩 가져오면서 스트림으로 넘김
+        return MemberTeamJoins.joinTeam(jpaQueryFactory
                 .select(new QMemberTeamDto(
                         QMember.member.id.as("memberid"),
                         QMember.member.username,
                         QMember.member.age,
                         QTeam.team.id.as("teamId"),
                         QTeam.team.name.as("teamName")))
-                .from(QMember.member)
-                .leftJoin(QMember.member.team, QTeam.team)
+                .from(QMember.member), condition.getTeamName())
                 .where(
                         usernameEq(condition.getUsername()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
+                        ageLoe(condition.getAgeLoe()),
+                        usernameStartsWith(condition.getUsernameStartsWith()),
+                        usernameContains(condition.getUsernameContains())
                 )
-//                offset 시작점
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetch();
+                .orderBy(QMember.member.id.asc())
+                .setHint(QueryHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .stream();
+    }
 
-//        토탈 카운트용 쿼리 작성
-        JPAQuery<Member> countQuery = jpaQueryFactory
-                .select(QMember.member)
-                .from(QMember.member)
-                .leftJoin(QMember.member.team, QTeam.team)
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> searchFields(MemberTeamSearchCondition condition, Set<MemberField> fields,
+                                                  Pageable pageable) {
+        List<MemberField> selected = new ArrayList<>(fields);
+        Expression<?>[] columns = selected.stream()
+                .map(MemberRepositoryImpl::column)
+                .toArray(Expression[]::new);
+
+        JPAQuery<Tuple> query = jpaQueryFactory
+                .select(columns)
+                .from(QMember.member);
+//        팀명을 조회하거나 팀명으로 거르지 않으면 team 조인 자체를 생략
+        if (StringUtils.hasText(condition.getTeamName()) || selected.stream().anyMatch(MemberField::isTeamJoin)) {
+            MemberTeamJoins.joinTeam(query, condition.getTeamName());
+        }
+        List<Tuple> rows = query
                 .where(
                         usernameEq(condition.getUsername()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                );
-//                .fetchCount();
+                        ageLoe(condition.getAgeLoe()),
+                        usernameStartsWith(condition.getUsernameStartsWith()),
+                        usernameContains(condition.getUsernameContains())
+                )
+                .orderBy(QMember.member.id.asc())
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+
+        List<Map<String, Object>> results = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (int i = 0; i < columns.length; i++) {
+                values.put(selected.get(i).getFieldName(), row.get(columns[i]));
+            }
+            results.add(values);
+        }
+        return results;
+    }
+
+//    update 는 조인을 못하므로 팀명 조건은 team_id 서브쿼리로 바꿈
+//    이미 그 팀인 회원은 제외 (이동 건수, 팀 통계가 정확하도록)
+//    대상 회원을 먼저 select for update 로 잠그고 그 id 들로만 집계/update
+//    (잠그지 않으면 집계와 update 사이에 바뀌거나 들어온 회원 때문에 team_stats 가 어긋남)
+//    update 전에 원래 팀별 건수/나이를 집계해 두고 update 후 team_stats 에 반영 (엔티티 이벤트가 없으므로)
+    @Override
+    @Transactional
+    public long reassignTeam(MemberTeamSearchCondition condition, Long teamId,
+                             long fromMemberIdExclusive, long toMemberIdInclusive) {
+        BooleanExpression[] where = {
+                QMember.member.id.gt(fromMemberIdExclusive),
+                QMember.member.id.loe(toMemberIdInclusive),
+                QMember.member.team.isNull().or(QMember.member.team.id.ne(teamId)),
+                usernameEq(condition.getUsername()),
+                teamNameIn(condition.getTeamName()),
+                ageGoe(condition.getAgeGoe()),
+                ageLoe(condition.getAgeLoe()),
+                usernameStartsWith(condition.getUsernameStartsWith()),
+                usernameContains(condition.getUsernameContains())
+        };
+
+        List<Long> ids = jpaQueryFactory
+                .select(QMember.member.id)
+                .from(QMember.member)
+                .where(where)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .fetch();
+        if (ids.isEmpty()) {
+            return 0;
+        }
 
+        List<TeamStatsWriter.Delta> removed = new ArrayList<>();
+        for (Tuple row : jpaQueryFactory
+                .select(QMember.member.team.id, QMember.member.count(), QMember.member.age.sum(),
+                        QMember.member.age.min(), QMember.member.age.max())
+                .from(QMember.member)
+                .where(QMember.member.id.in(ids))
+                .groupBy(QMember.member.team.id)
+                .fetch()) {
+            removed.add(new TeamStatsWriter.Delta(row.get(0, Long.class), row.get(1, Long.class),
+                    row.get(2, Number.class).longValue(), row.get(3, Integer.class), row.get(4, Integer.class)));
+        }
+
+        Team team = em.getReference(Team.class, teamId);
+        long moved = bulkQueryExecutor.update(QMember.member, update -> update
+                .set(QMember.member.team, team)
+                .where(QMember.member.id.in(ids)));
+        teamStatsWriter.moved(removed, teamId);
+        return moved;
+    }
 
+//    teamId 는 member.team_id (FK) 로 바로 조회되므로 조인이 필요없음
+    private static Expression<?> column(MemberField field) {
+        switch (field) {
+            case MEMBER_ID:
+                return QMember.member.id;
+            case USERNAME:
+                return QMember.member.username;
+            case AGE:
+                return QMember.member.age;
+            case TEAM_ID:
+                return QMember.member.team.id;
+            case TEAM_NAME:
+                return QTeam.team.name;
+            default:
+                throw new IllegalArgumentException("unknown field: " + field);
+        }
+    }
 
-//        return new PageImpl<>(results, pageable, count);
-        return PageableExecutionUtils.getPage(results, pageable, countQuery::fetchCount);
+    private BooleanExpression memberIdGt(Long lastMemberId) {
+        return lastMemberId != null ? QMember.member.id.gt(lastMemberId) : null;
     }
 
     private BooleanExpression usernameEq(String username) {
@@ -127,6 +276,15 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom{
         return StringUtils.hasText(teamName) ? QTeam.team.name.eq(teamName) : null;
     }
 
+    private BooleanExpression teamNameIn(String teamName) {
+        return StringUtils.hasText(teamName)
+                ? QMember.member.team.id.in(JPAExpressions
+                .select(QTeam.team.id)
+                .from(QTeam.team)
+                .where(QTeam.team.name.eq(teamName)))
+                : null;
+    }
+
     private BooleanExpression ageGoe(Integer ageGoe) {
         return ageGoe != null ? QMember.member.age.goe(ageGoe) : null;
     }
@@ -135,5 +293,24 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom{
         return ageLoe != null ? QMember.member.age.loe(ageLoe) : null;
     }
 
+//    앞부분 일치는 username 인덱스 범위 검색, 부분 일치는 trigram 인덱스 (MemberUsernameIndex)
+    private BooleanExpression usernameStartsWith(String prefix) {
+        return StringUtils.hasText(prefix)
+                ? MemberUsernameIndex.startsWith(Expressions.constant(MemberUsernameIndex.startsWithPattern(prefix)))
+                : null;
+    }
+
+    private BooleanExpression usernameContains(String term) {
+        if (!StringUtils.hasText(term)) {
+            return null;
+        }
+        Expression<String> pattern = Expressions.constant(MemberUsernameIndex.containsPattern(term));
+        Set<String> grams = MemberUsernameIndex.grams(term);
+        return grams.isEmpty() || !memberSearchTemplates.isUsernameIndexEnabled()
+                ? MemberUsernameIndex.containsScan(pattern)
+                : MemberUsernameIndex.contains(pattern, Expressions.constant(new ArrayList<>(grams)),
+                Expressions.constant((long) grams.size()));
+    }
+
 }
 
@@ -0,0 +1,103 @@
+package com.example.study.repository;
+
+import com.example.study.dto.MemberTeamSearchCondition;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.StringJoiner;
+
+/**
+ * 레포지토리 호출 메트릭
+ * - member.repository.calls : 메서드별 실행시간 (p50/p95/p99 만, 히스토그램 버킷은 안냄)
+ * - member.repository.calls.conditions : 메서드 + 검색조건 조합별 호출 수 (단순 카운터)
+ * - member.repository.rows : 메서드별 반환 row 수
+ * - member.repository.count.queries : searchPageComplex 카운트 쿼리 실행/생략 횟수, skip.ratio 는 생략 비율
+ * conditions 태그는 들어온 검색조건 이름을 + 로 연결 (최대 64가지)
+ * -> 시리즈 수가 조합 수만큼 곱해지므로 타이머에는 붙이지 않고 카운터 / row 수에만 붙임
+ */
+@Component
+public class MemberRepositoryMetrics {
+
+    public static final String NO_CONDITION = "none";
+
+    private final MeterRegistry registry;
+    private final Counter countExecuted;
+    private final Counter countSkipped;
+
+    public MemberRepositoryMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.countExecuted = Counter.builder("member.repository.count.queries")
+                .tag("result", "executed")
+                .register(registry);
+        this.countSkipped = Counter.builder("member.repository.count.queries")
+                .tag("result", "skipped")
+                .register(registry);
+        Gauge.builder("member.repository.count.skip.ratio", this, MemberRepositoryMetrics::countSkipRatio)
+                .register(registry);
+    }
+
+    public Timer timer(String repository, String method, String outcome) {
+        return Timer.builder("member.repository.calls")
+                .tag("repository", repository)
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+    }
+
+    public void countCall(String repository, String method, String conditions, String outcome) {
+        Counter.builder("member.repository.calls.conditions")
+                .tag("repository", repository)
+                .tag("method", method)
+                .tag("conditions", conditions)
+                .tag("outcome", outcome)
+                .register(registry)
+                .increment();
+    }
+
+    public void recordRows(String repository, String method, String conditions, int rows) {
+        DistributionSummary.builder("member.repository.rows")
+                .tag("repository", repository)
+                .tag("method", method)
+                .tag("conditions", conditions)
+                .register(registry)
+                .record(rows);
+    }
+
+    public void countQuery(boolean executed) {
+        (executed ? countExecuted : countSkipped).increment();
+    }
+
+    private double countSkipRatio() {
+        double total = countExecuted.count() + countSkipped.count();
+        return total == 0 ? 0 : countSkipped.count() / total;
+    }
+
+    public static String conditions(MemberTeamSearchCondition condition) {
+        StringJoiner joiner = new StringJoiner("+");
+        if (StringUtils.hasText(condition.getUsername())) {
+            joiner.add("username");
+        }
+        if (StringUtils.hasText(condition.getTeamName())) {
+            joiner.add("teamName");
+        }
+        if (condition.getAgeGoe() != null) {
+            joiner.add("ageGoe");
+        }
+        if (condition.getAgeLoe() != null) {
+            joiner.add("ageLoe");
+        }
+        if (StringUtils.hasText(condition.getUsernameStartsWith())) {
+            joiner.add("usernameStartsWith");
+        }
+        if (StringUtils.hasText(condition.getUsernameContains())) {
+            joiner.add("usernameContains");
+        }
+        return joiner.length() == 0 ? NO_CONDITION : joiner.toString();
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.study.repository;
+
+import com.example.study.dto.MemberTeamSearchCondition;
+import lombok.Value;
+import org.springframework.util.StringUtils;
+
+/**
+ * 검색조건 캐시 키
+ * 빈 문자열/공백은 조건 없음(null)과 같은 쿼리가 되므로 같은 키로 정규화
+ */
+@Value
+public class MemberSearchKey {
+
+    String username;
+    String teamName;
+    Integer ageGoe;
+    Integer ageLoe;
+    String usernameStartsWith;
+    String usernameContains;
+
+    public static MemberSearchKey of(MemberTeamSearchCondition condition) {
+        return new MemberSearchKey(
+                normalize(condition.getUsername()),
+                normalize(condition.getTeamName()),
+                condition.getAgeGoe(),
+                condition.getAgeLoe(),
+                normalize(condition.getUsernameStartsWith()),
+                normalize(condition.getUsernameContains()));
+    }
+
+    public MemberTeamSearchCondition toCondition() {
+        MemberTeamSearchCondition condition = new MemberTeamSearchCondition();
+        condition.setUsername(username);
+        condition.setTeamName(teamName);
+        condition.setAgeGoe(ageGoe);
+        condition.setAgeLoe(ageLoe);
+        condition.setUsernameStartsWith(usernameStartsWith);
+        condition.setUsernameContains(usernameContains);
+        return condition;
+    }
+
+    private static String normalize(String value) {
+        return StringUtils.hasText(value) ? value : null;
+    }
+}
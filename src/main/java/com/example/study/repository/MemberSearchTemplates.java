@@ -0,0 +1,280 @@
+package com.example.study.repository;
+
+import com.example.study.dto.MemberTeamDto;
+import com.example.study.dto.MemberTeamSearchCondition;
+import com.example.study.dto.QMemberTeamDto;
+import com.example.study.entity.QMember;
+import com.example.study.entity.QTeam;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.JPQLTemplates;
+import com.querydsl.jpa.impl.JPAProvider;
+import com.querydsl.jpa.impl.JPAQuery;
+import lombok.Getter;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 검색 쿼리 템플릿 캐시
+ * 조건 6개가 있고/없고 조합(+ 부분검색어가 3글자 미만인지)으로 쿼리 모양이 정해져 있으므로
+ * 모양별로 querydsl -> JPQL 변환을 한번만 하고 이후에는 파라미터만 바인딩해서 실행
+ * (JPQL 문자열이 같으므로 하이버네이트 쿼리 플랜 캐시도 그대로 재사용됨)
+ * 카운트 / 다음 행 존재 확인은 컨텐츠 쿼리를 감싸지 않고 조건만으로 따로 만듦
+ * (필터가 아닌 team left join 은 member 당 최대 한건이라 건수에 영향이 없으므로 생략, member PK 만 셈)
+ */
+@Component
+public class MemberSearchTemplates {
+
+    private static final int USERNAME = 1;
+    private static final int TEAM_NAME = 1 << 1;
+    private static final int AGE_GOE = 1 << 2;
+    private static final int AGE_LOE = 1 << 3;
+    private static final int USERNAME_STARTS_WITH = 1 << 4;
+    private static final int USERNAME_CONTAINS = 1 << 5;
+    //    3글자 미만 부분검색어는 trigram 을 못쓰므로 like 스캔
+    private static final int USERNAME_CONTAINS_SCAN = 1 << 6;
+    private static final int SHAPES = 1 << 7;
+
+    private static final Param<String> USERNAME_PARAM = new Param<>(String.class, "username");
+    private static final Param<String> TEAM_NAME_PARAM = new Param<>(String.class, "teamName");
+    private static final Param<Integer> AGE_GOE_PARAM = new Param<>(Integer.class, "ageGoe");
+    private static final Param<Integer> AGE_LOE_PARAM = new Param<>(Integer.class, "ageLoe");
+    private static final Param<String> STARTS_WITH_PARAM = new Param<>(String.class, "usernameStartsWith");
+    private static final Param<String> CONTAINS_PARAM = new Param<>(String.class, "usernameContains");
+    private static final Param<Collection<String>> GRAMS_PARAM = collectionParam("usernameGrams");
+    private static final Param<Long> GRAM_COUNT_PARAM = new Param<>(Long.class, "usernameGramCount");
+
+    private static final QMemberTeamDto PROJECTION = new QMemberTeamDto(
+            QMember.member.id.as("memberid"),
+            QMember.member.username,
+            QMember.member.age,
+            QTeam.team.id.as("teamId"),
+            QTeam.team.name.as("teamName"));
+
+    private final EntityManager em;
+    private final JPQLTemplates jpqlTemplates;
+    private final boolean usernameIndexEnabled;
+
+    private final AtomicReferenceArray<Template> contentTemplates = new AtomicReferenceArray<>(SHAPES);
+    private final AtomicReferenceArray<Template> countTemplates = new AtomicReferenceArray<>(SHAPES);
+    private final AtomicReferenceArray<Template> probeTemplates = new AtomicReferenceArray<>(SHAPES);
+    private final LongAdder builds = new LongAdder();
+    private final LongAdder reuses = new LongAdder();
+
+    //    username-index.enabled=false 이면 부분검색은 항상 like 스캔 (gram 은 계속 관리, 비교 측정용)
+    public MemberSearchTemplates(EntityManager em,
+                                 @Value("${member.username-index.enabled:true}") boolean usernameIndexEnabled) {
+        this.em = em;
+        this.jpqlTemplates = JPAProvider.getTemplates(em);
+        this.usernameIndexEnabled = usernameIndexEnabled;
+    }
+
+    public boolean isUsernameIndexEnabled() {
+        return usernameIndexEnabled;
+    }
+
+    public List<MemberTeamDto> fetch(MemberTeamSearchCondition condition, Pageable pageable) {
+        return fetch(condition, pageable, null);
+    }
+
+    //    timeout 이 있으면 DB 에서 취소되도록 statement 에 쿼리 타임아웃을 걸음
+    public List<MemberTeamDto> fetch(MemberTeamSearchCondition condition, Pageable pageable, Duration timeout) {
+        Template template = template(contentTemplates, shapeOf(condition), Kind.CONTENT);
+        Query query = template.bind(em.createQuery(template.getJpql()), condition);
+        applyTimeout(query, timeout);
+        if (pageable != null) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+
+        List<?> rows = query.getResultList();
+        List<MemberTeamDto> results = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            results.add(PROJECTION.newInstance((Object[]) row));
+        }
+        return results;
+    }
+
+    public long count(MemberTeamSearchCondition condition) {
+        return count(condition, null);
+    }
+
+    public long count(MemberTeamSearchCondition condition, Duration timeout) {
+        Template template = template(countTemplates, shapeOf(condition), Kind.COUNT);
+        Query query = template.bind(em.createQuery(template.getJpql()), condition);
+        applyTimeout(query, timeout);
+        return ((Number) query.getSingleResult()).longValue();
+    }
+
+    //    offset 번째 행이 있는지만 확인 (토탈 없이 다음 페이지 여부만 필요할때, limit 1 이라 카운트보다 쌈)
+    public boolean exists(MemberTeamSearchCondition condition, long offset) {
+        Template template = template(probeTemplates, shapeOf(condition), Kind.PROBE);
+        Query query = template.bind(em.createQuery(template.getJpql()), condition);
+        query.setFirstResult((int) offset);
+        query.setMaxResults(1);
+        return !query.getResultList().isEmpty();
+    }
+
+    //    JDBC 타임아웃은 초 단위이고 하이버네이트는 ms 를 버림으로 초로 바꾸므로 (500ms -> 0 = 무제한) 초 단위로 올림
+    private static void applyTimeout(Query query, Duration timeout) {
+        if (timeout == null) {
+            return;
+        }
+        long seconds = Math.max(1, (timeout.toMillis() + 999) / 1000);
+        query.setHint(QueryHints.SPEC_HINT_TIMEOUT, (int) (seconds * 1000));
+    }
+
+    public long getBuildCount() {
+        return builds.sum();
+    }
+
+    public long getReuseCount() {
+        return reuses.sum();
+    }
+
+    private Template template(AtomicReferenceArray<Template> templates, int shape, Kind kind) {
+        Template template = templates.get(shape);
+        if (template != null) {
+            reuses.increment();
+            return template;
+        }
+//        동시에 만들어져도 결과가 같으므로 먼저 들어간것을 사용
+        builds.increment();
+        templates.compareAndSet(shape, null, build(shape, kind));
+        return templates.get(shape);
+    }
+
+    private Template build(int shape, Kind kind) {
+        JPAQuery<?> query = new JPAQuery<Void>().from(QMember.member);
+        switch (kind) {
+            case COUNT:
+                query.select(QMember.member.id.count());
+                break;
+            case PROBE:
+                query.select(QMember.member.id);
+                break;
+            default:
+                query.select(PROJECTION);
+        }
+//        팀명 조건이 있으면 inner join (team.name 인덱스부터 탈수있도록)
+//        카운트 / 존재 확인은 팀 컬럼을 안쓰므로 팀명 조건이 없으면 조인 생략
+        if ((shape & TEAM_NAME) != 0) {
+            query.join(QMember.member.team, QTeam.team);
+        } else if (kind == Kind.CONTENT) {
+            query.leftJoin(QMember.member.team, QTeam.team);
+        }
+        query.where(
+                (shape & USERNAME) != 0 ? QMember.member.username.eq(USERNAME_PARAM) : null,
+                (shape & TEAM_NAME) != 0 ? QTeam.team.name.eq(TEAM_NAME_PARAM) : null,
+                (shape & AGE_GOE) != 0 ? QMember.member.age.goe(AGE_GOE_PARAM) : null,
+                (shape & AGE_LOE) != 0 ? QMember.member.age.loe(AGE_LOE_PARAM) : null,
+                (shape & USERNAME_STARTS_WITH) != 0 ? MemberUsernameIndex.startsWith(STARTS_WITH_PARAM) : null,
+                (shape & USERNAME_CONTAINS) != 0
+                        ? MemberUsernameIndex.contains(CONTAINS_PARAM, GRAMS_PARAM, GRAM_COUNT_PARAM) : null,
+                (shape & USERNAME_CONTAINS_SCAN) != 0 ? MemberUsernameIndex.containsScan(CONTAINS_PARAM) : null);
+
+        JPQLSerializer serializer = new JPQLSerializer(jpqlTemplates, em);
+        serializer.serialize(query.getMetadata(), false, null);
+        return new Template(serializer.toString(), new ArrayList<>(serializer.getConstants()));
+    }
+
+    private static Param<Collection<String>> collectionParam(String name) {
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Class<Collection<String>> type = (Class) Collection.class;
+        return new Param<>(type, name);
+    }
+
+    private int shapeOf(MemberTeamSearchCondition condition) {
+        int shape = 0;
+        if (StringUtils.hasText(condition.getUsername())) {
+            shape |= USERNAME;
+        }
+        if (StringUtils.hasText(condition.getTeamName())) {
+            shape |= TEAM_NAME;
+        }
+        if (condition.getAgeGoe() != null) {
+            shape |= AGE_GOE;
+        }
+        if (condition.getAgeLoe() != null) {
+            shape |= AGE_LOE;
+        }
+        if (StringUtils.hasText(condition.getUsernameStartsWith())) {
+            shape |= USERNAME_STARTS_WITH;
+        }
+        if (StringUtils.hasText(condition.getUsernameContains())) {
+            shape |= !usernameIndexEnabled || MemberUsernameIndex.grams(condition.getUsernameContains()).isEmpty()
+                    ? USERNAME_CONTAINS_SCAN : USERNAME_CONTAINS;
+        }
+        return shape;
+    }
+
+    private enum Kind {
+        CONTENT, COUNT, PROBE
+    }
+
+    @Getter
+    static class Template {
+
+        private final String jpql;
+        //        ?1, ?2 ... 순서대로의 값 (Param 이면 검색조건에서 꺼내서 바인딩)
+        private final List<Object> constants;
+
+        Template(String jpql, List<Object> constants) {
+            this.jpql = jpql;
+            this.constants = Collections.unmodifiableList(constants);
+        }
+
+        Query bind(Query query, MemberTeamSearchCondition condition) {
+            for (int i = 0; i < constants.size(); i++) {
+                Object constant = constants.get(i);
+                Object value = constant instanceof ParamExpression
+                        ? valueOf((ParamExpression<?>) constant, condition)
+                        : constant;
+                query.setParameter(i + 1, value);
+            }
+            return query;
+        }
+
+        private static Object valueOf(ParamExpression<?> param, MemberTeamSearchCondition condition) {
+            if (param == USERNAME_PARAM) {
+                return condition.getUsername();
+            }
+            if (param == TEAM_NAME_PARAM) {
+                return condition.getTeamName();
+            }
+            if (param == AGE_GOE_PARAM) {
+                return condition.getAgeGoe();
+            }
+            if (param == AGE_LOE_PARAM) {
+                return condition.getAgeLoe();
+            }
+            if (param == STARTS_WITH_PARAM) {
+                return MemberUsernameIndex.startsWithPattern(condition.getUsernameStartsWith());
+            }
+            if (param == CONTAINS_PARAM) {
+                return MemberUsernameIndex.containsPattern(condition.getUsernameContains());
+            }
+            if (param == GRAMS_PARAM) {
+                return new ArrayList<>(MemberUsernameIndex.grams(condition.getUsernameContains()));
+            }
+            if (param == GRAM_COUNT_PARAM) {
+                return (long) MemberUsernameIndex.grams(condition.getUsernameContains()).size();
+            }
+            throw new IllegalStateException("unknown param: " + param.getName());
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.study.repository;
+
+import com.example.study.entity.QMember;
+import com.example.study.entity.QTeam;
+import com.querydsl.jpa.impl.JPAQuery;
+import org.springframework.util.StringUtils;
+
+/**
+ * member -> team 조인 규칙 (MemberJPARepository, MemberRepositoryImpl 공용)
+ * 팀명 조건이 있으면 팀 없는 회원은 어차피 where 에서 걸러지므로 inner join 으로 바꿈
+ * (left join 이면 member 전체를 스캔한 뒤 team.name 을 비교 -> inner join 이면 team.name 인덱스부터 탈수있음)
+ */
+final class MemberTeamJoins {
+
+    private MemberTeamJoins() {
+    }
+
+    static <T> JPAQuery<T> joinTeam(JPAQuery<T> query, String teamName) {
+        return StringUtils.hasText(teamName)
+                ? query.join(QMember.member.team, QTeam.team)
+                : query.leftJoin(QMember.member.team, QTeam.team);
+    }
+}
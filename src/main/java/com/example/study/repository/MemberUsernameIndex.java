@@ -0,0 +1,187 @@
+package com.example.study.repository;
+
+import com.example.study.entity.QMember;
+import com.example.study.entity.QMemberUsernameGram;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.jpa.JPAExpressions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * member_username_gram 관리
+ * 엔티티 저장/수정/삭제는 MemberUsernameIndexListener 가 같은 트랜잭션(커넥션)에서 반영
+ * JDBC 로 직접 넣은 회원(MemberDataSeeder)은 reindex(), username 을 바꾸는 벌크 update 는 그 구간만 reindex(from, to)
+ * 검색할때는 항상 username like 로 한번 더 확인하므로 인덱스가 늦어도 잘못된 결과는 안나옴 (빠질수는 있음)
+ */
+@Slf4j
+@Component
+public class MemberUsernameIndex {
+
+    public static final int GRAM_LENGTH = 3;
+    public static final char LIKE_ESCAPE = '!';
+
+    private static final String DELETE_SQL = "delete from member_username_gram where member_id = ?";
+    private static final String INSERT_SQL = "insert into member_username_gram (gram, member_id) values (?, ?)";
+    private static final int REINDEX_CHUNK_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public MemberUsernameIndex(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    //    소문자로 바꾼 username 의 연속된 3글자(코드포인트) 조각, 3글자 미만이면 없음
+    public static Set<String> grams(String value) {
+        Set<String> grams = new LinkedHashSet<>();
+        if (value == null) {
+            return grams;
+        }
+        int[] codePoints = value.toLowerCase(Locale.ROOT).codePoints().toArray();
+        for (int i = 0; i + GRAM_LENGTH <= codePoints.length; i++) {
+            grams.add(new String(codePoints, i, GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    //    부분 일치 : gram 을 전부 가진 member_id 만 남기고 like 로 다시 확인 (gram 순서/중복은 like 가 거름)
+    //    3글자 미만이면 gram 이 없으므로 like 스캔
+    public static BooleanExpression contains(Expression<String> pattern, Expression<? extends Collection<String>> grams,
+                                             Expression<Long> gramCount) {
+        QMemberUsernameGram gram = QMemberUsernameGram.memberUsernameGram;
+        return QMember.member.id.in(JPAExpressions
+                        .select(gram.memberId)
+                        .from(gram)
+                        .where(Expressions.booleanTemplate("{0} in {1}", gram.gram, grams))
+                        .groupBy(gram.memberId)
+                        .having(gram.gram.count().eq(gramCount)))
+                .and(containsScan(pattern));
+    }
+
+    public static BooleanExpression containsScan(Expression<String> pattern) {
+        return QMember.member.username.lower().like(pattern, LIKE_ESCAPE);
+    }
+
+    public static BooleanExpression startsWith(Expression<String> pattern) {
+        return QMember.member.username.like(pattern, LIKE_ESCAPE);
+    }
+
+    public static String containsPattern(String term) {
+        return "%" + escapeLike(term.toLowerCase(Locale.ROOT)) + "%";
+    }
+
+    public static String startsWithPattern(String term) {
+        return escapeLike(term) + "%";
+    }
+
+    private static String escapeLike(String term) {
+        StringBuilder escaped = new StringBuilder(term.length());
+        for (char c : term.toCharArray()) {
+            if (c == LIKE_ESCAPE || c == '%' || c == '_') {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+
+    //    username 이 null 이면 삭제만
+    public static void write(Connection connection, long memberId, String username) throws SQLException {
+        try (PreparedStatement delete = connection.prepareStatement(DELETE_SQL)) {
+            delete.setLong(1, memberId);
+            delete.executeUpdate();
+        }
+        Set<String> grams = grams(username);
+        if (grams.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement insert = connection.prepareStatement(INSERT_SQL)) {
+            for (String gram : grams) {
+                insert.setString(1, gram);
+                insert.setLong(2, memberId);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+
+    //    새로 넣은 회원들 (기존 gram 삭제 없이 추가만)
+    public void insert(long[] memberIds, String[] usernames) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < memberIds.length; i++) {
+            for (String gram : grams(usernames[i])) {
+                rows.add(new Object[]{gram, memberIds[i]});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+
+    //    전체 재생성 : member_id 순서로 청크마다 그 범위의 gram 만 지우고 다시 넣은뒤 커밋
+    //    (전체를 먼저 지우면 재생성이 끝날때까지 검색 결과가 비고, 그 사이 리스너가 넣은 gram 과 PK 가 겹침)
+    public long reindex() {
+        return reindex(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    //    member_id 구간 (fromExclusive, toInclusive] 만 재생성 (username 을 바꾼 벌크 update 가 지나간 구간)
+    public long reindex(long fromExclusive, long toInclusive) {
+        long lastId = fromExclusive;
+        long indexed = 0;
+        while (true) {
+            long chunkFrom = lastId;
+            long[] ids = transactionTemplate.execute(status -> reindexChunk(chunkFrom, toInclusive));
+            if (ids.length == 0) {
+                break;
+            }
+            indexed += ids.length;
+            lastId = ids[ids.length - 1];
+        }
+//        마지막 회원 뒤로 남은 gram 중 회원이 없는것만 (삭제된 회원)
+//        스캔 후에 커밋된 회원은 id 가 더 크므로 범위로 지우면 리스너가 넣은 gram 까지 지워짐
+        removeOrphans(lastId, toInclusive);
+        log.info("reindexed usernames of {} members in member_id ({}, {}]", indexed, fromExclusive, toInclusive);
+        return indexed;
+    }
+
+    //    구간 안에서 회원이 없는 gram 만 삭제 (벌크 delete 후, 남은 회원의 gram 은 그대로)
+    public int removeOrphans(long fromExclusive, long toInclusive) {
+        return transactionTemplate.execute(status -> jdbcTemplate.update(
+                "delete from member_username_gram where member_id > ? and member_id <= ?"
+                        + " and member_id not in (select member_id from member where member_id > ? and member_id <= ?)",
+                fromExclusive, toInclusive, fromExclusive, toInclusive));
+    }
+
+    private long[] reindexChunk(long fromExclusive, long toInclusive) {
+        List<Object[]> members = jdbcTemplate.query(
+                "select member_id, username from member where member_id > ? and member_id <= ? order by member_id limit ?",
+                (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getString(2)},
+                fromExclusive, toInclusive, REINDEX_CHUNK_SIZE);
+        long[] ids = new long[members.size()];
+        String[] usernames = new String[members.size()];
+        for (int i = 0; i < members.size(); i++) {
+            ids[i] = (Long) members.get(i)[0];
+            usernames[i] = (String) members.get(i)[1];
+        }
+        if (ids.length > 0) {
+            jdbcTemplate.update("delete from member_username_gram where member_id > ? and member_id <= ?",
+                    fromExclusive, ids[ids.length - 1]);
+            insert(ids, usernames);
+        }
+        return ids;
+    }
+}
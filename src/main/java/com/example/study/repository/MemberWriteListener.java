@@ -0,0 +1,10 @@
+package com.example.study.repository;
+
+/**
+ * member / team 테이블에 쓰기(insert, update, delete, 벌크 연산 포함)가 일어났을때 호출됨
+ * 검색 결과를 들고있는 캐시들이 구현
+ */
+public interface MemberWriteListener {
+
+    void onMemberWrite();
+}
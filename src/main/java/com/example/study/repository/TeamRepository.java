@@ -0,0 +1,8 @@
+package com.example.study.repository;
+
+import com.example.study.entity.Team;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface TeamRepository extends JpaRepository<Team, Long>, TeamRepositoryCustom {
+
+}
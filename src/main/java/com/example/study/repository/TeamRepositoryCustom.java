@@ -0,0 +1,11 @@
+package com.example.study.repository;
+
+import com.example.study.entity.Team;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+public interface TeamRepositoryCustom {
+//    팀 id 로 먼저 페이징하고 그 페이지의 팀 + members 를 한번에 조회 (컬렉션 페치조인은 DB 페이징이 안됨)
+    Page<Team> findPageWithMembers(Pageable pageable);
+
+}
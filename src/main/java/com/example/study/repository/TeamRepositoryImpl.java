@@ -0,0 +1,60 @@
+package com.example.study.repository;
+
+import com.example.study.entity.QMember;
+import com.example.study.entity.QTeam;
+import com.example.study.entity.Team;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+public class TeamRepositoryImpl implements TeamRepositoryCustom {
+
+    private final JPAQueryFactory jpaQueryFactory;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Team> findPageWithMembers(Pageable pageable) {
+//        1. 팀 id 만 DB 에서 페이징 (팀 row 수 기준이라 limit/offset 이 그대로 적용됨)
+        List<Long> ids = jpaQueryFactory
+                .select(QTeam.team.id)
+                .from(QTeam.team)
+                .orderBy(QTeam.team.id.asc())
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+        JPAQuery<Long> countQuery = jpaQueryFactory
+                .select(QTeam.team.count())
+                .from(QTeam.team);
+//        범위를 벗어난 페이지여도 전체 수는 count 로 (첫 페이지가 비었으면 count 생략)
+        if (ids.isEmpty()) {
+            return PageableExecutionUtils.getPage(Collections.emptyList(), pageable, countQuery::fetchOne);
+        }
+
+//        2. 해당 페이지 팀들의 members 까지 한번에 조회 (id 수가 페이지 크기로 제한되므로 메모리 페이징 없음)
+        Map<Long, Team> teams = jpaQueryFactory
+                .selectFrom(QTeam.team).distinct()
+                .leftJoin(QTeam.team.members, QMember.member).fetchJoin()
+                .where(QTeam.team.id.in(ids))
+                .fetch()
+                .stream()
+                .collect(Collectors.toMap(Team::getId, Function.identity()));
+//        두 쿼리 사이에 삭제된 팀은 빠짐
+        List<Team> content = ids.stream()
+                .map(teams::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchOne);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.study.repository;
+
+import com.example.study.entity.TeamStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface TeamStatsRepository extends JpaRepository<TeamStats, Long> {
+
+}
@@ -0,0 +1,223 @@
+package com.example.study.repository;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * team_stats 관리
+ * 엔티티 저장/삭제/팀 이동은 TeamStatsListener 가 같은 트랜잭션(커넥션)에서 한 행만 증감
+ * 최소/최대는 빠지는 회원이 경계값일때만 (team_id, age) 인덱스로 다시 구함
+ * JDBC 로 직접 넣은 회원(MemberDataSeeder)은 청크마다 add(), 팀 일괄 이동은 청크마다 moved()
+ * 그 외 벌크 update/delete 후에는 refresh(영향받은 팀들) 또는 rebuild()
+ * 재계산은 대상 team_stats 행을 먼저 잠그고 member 에서 다시 집계해서 merge
+ * (리스너의 증감은 잠금이 풀린 뒤 재계산 결과 위에 더해지고, 재계산 전에 커밋된 증감은 집계에 포함됨)
+ */
+@Slf4j
+@Component
+public class TeamStatsWriter {
+
+    private static final String CREATE_SQL = "insert into team_stats (team_id, member_count, age_sum) values (?, 0, 0)";
+    private static final String DELETE_SQL = "delete from team_stats where team_id = ?";
+    private static final String ADD_SQL = "update team_stats set member_count = member_count + ?, age_sum = age_sum + ?,"
+            + " min_age = case when min_age is null or min_age > ? then ? else min_age end,"
+            + " max_age = case when max_age is null or max_age < ? then ? else max_age end"
+            + " where team_id = ?";
+    private static final String REMOVE_SQL = "update team_stats set member_count = member_count - ?, age_sum = age_sum - ?,"
+            + " min_age = case when min_age < ? then min_age else (select min(age) from member where team_id = ?) end,"
+            + " max_age = case when max_age > ? then max_age else (select max(age) from member where team_id = ?) end"
+            + " where team_id = ?";
+    //    행이 없는 팀(JDBC 로 넣은 팀 등)은 member 에서 한번 계산해서 만듦 (그 사이 다른 트랜잭션이 만들었으면 덮어씀)
+    private static final String REFRESH_SQL = "merge into team_stats (team_id, member_count, age_sum, min_age, max_age)"
+            + " key (team_id) select ?, count(*), coalesce(sum(age), 0), min(age), max(age) from member where team_id = ?";
+    private static final String LOCK_SQL = "select team_id from team_stats where team_id = ? for update";
+    private static final String LOCK_RANGE_SQL = "select team_id from team_stats where team_id > ? and team_id <= ?"
+            + " order by team_id for update";
+    private static final String REFRESH_RANGE_SQL = "merge into team_stats (team_id, member_count, age_sum, min_age, max_age)"
+            + " key (team_id) select t.id, count(m.member_id), coalesce(sum(m.age), 0), min(m.age), max(m.age)"
+            + " from team t left join member m on m.team_id = t.id where t.id > ? and t.id <= ? group by t.id";
+    private static final int CHUNK_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public TeamStatsWriter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public static void teamCreated(Connection connection, long teamId) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(CREATE_SQL)) {
+            insert.setLong(1, teamId);
+            insert.executeUpdate();
+        }
+    }
+
+    public static void teamDeleted(Connection connection, long teamId) throws SQLException {
+        try (PreparedStatement delete = connection.prepareStatement(DELETE_SQL)) {
+            delete.setLong(1, teamId);
+            delete.executeUpdate();
+        }
+    }
+
+    //    member 테이블에 이미 반영된 뒤에 호출 (flush 후 이벤트)
+    public static void memberAdded(Connection connection, long teamId, int age) throws SQLException {
+        int updated;
+        try (PreparedStatement update = connection.prepareStatement(ADD_SQL)) {
+            update.setLong(1, 1);
+            update.setLong(2, age);
+            update.setInt(3, age);
+            update.setInt(4, age);
+            update.setInt(5, age);
+            update.setInt(6, age);
+            update.setLong(7, teamId);
+            updated = update.executeUpdate();
+        }
+        if (updated == 0) {
+            refresh(connection, teamId);
+        }
+    }
+
+    public static void memberRemoved(Connection connection, long teamId, int age) throws SQLException {
+        int updated;
+        try (PreparedStatement update = connection.prepareStatement(REMOVE_SQL)) {
+            update.setLong(1, 1);
+            update.setLong(2, age);
+            update.setInt(3, age);
+            update.setLong(4, teamId);
+            update.setInt(5, age);
+            update.setLong(6, teamId);
+            update.setLong(7, teamId);
+            updated = update.executeUpdate();
+        }
+        if (updated == 0) {
+            refresh(connection, teamId);
+        }
+    }
+
+    private static void refresh(Connection connection, long teamId) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(REFRESH_SQL)) {
+            insert.setLong(1, teamId);
+            insert.setLong(2, teamId);
+            insert.executeUpdate();
+        }
+    }
+
+    //    새로 넣은 팀들 (회원 0명)
+    public void create(long[] teamIds) {
+        List<Object[]> rows = new ArrayList<>();
+        for (long teamId : teamIds) {
+            rows.add(new Object[]{teamId});
+        }
+        jdbcTemplate.batchUpdate(CREATE_SQL, rows);
+    }
+
+    //    새로 넣은 회원들 : 팀별로 합쳐서 팀당 한번만 update
+    //    여러 트랜잭션이 같은 팀 행을 잡으므로 team_id 순서로 갱신해서 데드락을 피함
+    public void add(long[] teamIds, int[] ages) {
+        Map<Long, long[]> deltas = new TreeMap<>();
+        for (int i = 0; i < teamIds.length; i++) {
+            long[] delta = deltas.computeIfAbsent(teamIds[i], teamId -> new long[]{0, 0, Integer.MAX_VALUE, Integer.MIN_VALUE});
+            delta[0]++;
+            delta[1] += ages[i];
+            delta[2] = Math.min(delta[2], ages[i]);
+            delta[3] = Math.max(delta[3], ages[i]);
+        }
+        List<Object[]> rows = new ArrayList<>();
+        deltas.forEach((teamId, delta) ->
+                rows.add(new Object[]{delta[0], delta[1], delta[2], delta[2], delta[3], delta[3], teamId}));
+        jdbcTemplate.batchUpdate(ADD_SQL, rows);
+    }
+
+    //    member.team_id 를 바꾼 뒤에 호출 (같은 트랜잭션), removed 는 원래 팀별 집계 (팀 없던 회원은 teamId null)
+    //    원래 팀들과 옮겨간 팀을 team_id 순서로 갱신
+    public void moved(List<Delta> removed, long targetTeamId) {
+        Map<Long, Object[]> updates = new TreeMap<>();
+        long count = 0;
+        long ageSum = 0;
+        int minAge = Integer.MAX_VALUE;
+        int maxAge = Integer.MIN_VALUE;
+        for (Delta delta : removed) {
+            count += delta.getCount();
+            ageSum += delta.getAgeSum();
+            minAge = Math.min(minAge, delta.getMinAge());
+            maxAge = Math.max(maxAge, delta.getMaxAge());
+            if (delta.getTeamId() != null) {
+                long teamId = delta.getTeamId();
+                updates.put(teamId, new Object[]{REMOVE_SQL, delta.getCount(), delta.getAgeSum(),
+                        delta.getMinAge(), teamId, delta.getMaxAge(), teamId, teamId});
+            }
+        }
+        if (count > 0) {
+            updates.put(targetTeamId, new Object[]{ADD_SQL, count, ageSum, minAge, minAge, maxAge, maxAge, targetTeamId});
+        }
+        updates.forEach((teamId, update) -> {
+            if (jdbcTemplate.update((String) update[0], Arrays.copyOfRange(update, 1, update.length)) == 0) {
+                jdbcTemplate.update(REFRESH_SQL, teamId, teamId);
+            }
+        });
+    }
+
+    //    지정한 팀들만 재계산 : team_id 순서로 잠가서 리스너 / 다른 재계산과 데드락을 피함
+    public void refresh(Collection<Long> teamIds) {
+        List<Long> sorted = new ArrayList<>(new TreeSet<>(teamIds));
+        for (int from = 0; from < sorted.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = sorted.subList(from, Math.min(from + CHUNK_SIZE, sorted.size()));
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Long teamId : chunk) {
+                    jdbcTemplate.queryForList(LOCK_SQL, Long.class, teamId);
+                    jdbcTemplate.update(REFRESH_SQL, teamId, teamId);
+                }
+            });
+        }
+    }
+
+    //    전체 재계산 : team_id 구간(청크)마다 잠그고 다시 집계해서 커밋, 마지막에 없어진 팀의 행 삭제
+    public long rebuild() {
+        long lastId = Long.MIN_VALUE;
+        long teams = 0;
+        while (true) {
+            List<Long> ids = jdbcTemplate.queryForList(
+                    "select id from team where id > ? order by id limit ?", Long.class, lastId, CHUNK_SIZE);
+            if (ids.isEmpty()) {
+                break;
+            }
+            long fromExclusive = lastId;
+            long toInclusive = ids.get(ids.size() - 1);
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.queryForList(LOCK_RANGE_SQL, Long.class, fromExclusive, toInclusive);
+                jdbcTemplate.update(REFRESH_RANGE_SQL, fromExclusive, toInclusive);
+            });
+            teams += ids.size();
+            lastId = toInclusive;
+        }
+        jdbcTemplate.update("delete from team_stats where team_id not in (select id from team)");
+        log.info("rebuilt stats of {} teams", teams);
+        return teams;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Delta {
+        private final Long teamId;
+        private final long count;
+        private final long ageSum;
+        private final int minAge;
+        private final int maxAge;
+    }
+}
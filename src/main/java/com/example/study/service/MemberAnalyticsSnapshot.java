@@ -0,0 +1,578 @@
+package com.example.study.service;
+
+import com.example.study.dto.AgeStatsDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * 리포트 화면용 member / team 컬럼 스냅샷 (나이 집계, 팀명별 나이 집계)
+ * member 를 행 단위 객체가 아니라 int[] ages / int[] teamCodes 배열로 들고 있고 팀명은 사전(teamIds / teamNames)으로 분리
+ * 집계는 배열을 한번 훑는 루프 (parallel-threshold 이상이면 구간을 나눠서 병렬로 계산 후 합침)
+ *
+ * 커밋된 엔티티 변경(MemberSnapshotListener)은 큐에 쌓아뒀다가 다음 조회때 반영 (복사 후 교체라 읽는 쪽은 락 없음)
+ * 반영할때마다 배열 전체를 복사하므로 apply-interval 안에는 한번만 반영 (그 사이 조회는 직전 스냅샷)
+ * 엔티티 이벤트가 없는 벌크 update/delete, JDBC insert 는 full-refresh 주기마다 전체 다시 읽어서 맞춤
+ */
+@Slf4j
+@Service
+public class MemberAnalyticsSnapshot {
+
+    private static final int NO_TEAM = -1;
+    private static final int MAX_PENDING_CHANGES = 100_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration fullRefresh;
+    private final long applyIntervalNanos;
+    private final int parallelThreshold;
+
+    private final Queue<Change> changes = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Object lock = new Object();
+    private volatile Columns columns;
+    //    삭제된 member id (다음 reload 까지), 다른 스레드에서 늦게 온 이전 변경이 삭제된 회원을 되살리지 않도록
+    private final Set<Long> deleted = new HashSet<>();
+    private volatile boolean loading;
+    //    쌓인 변경이 너무 많아서 버렸음 -> 다음 조회때 다시 읽음
+    private volatile boolean stale;
+    private volatile long appliedAt;
+    private volatile long reloads;
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public MemberAnalyticsSnapshot(JdbcTemplate jdbcTemplate,
+                                   @Value("${member.analytics.full-refresh:10m}") Duration fullRefresh,
+                                   @Value("${member.analytics.apply-interval:0ms}") Duration applyInterval,
+                                   @Value("${member.analytics.parallel-threshold:200000}") int parallelThreshold) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fullRefresh = fullRefresh;
+        this.applyIntervalNanos = applyInterval.toNanos();
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "member-analytics-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = fullRefresh.toMillis();
+        scheduler.scheduleWithFixedDelay(this::refreshIfLoaded, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    //    count(*), sum(age), avg(age), max(age), min(age) from member
+    public AgeStatsDto ageStats() {
+        Columns current = current();
+        int[] ages = current.ages;
+        Partial total = current.size >= parallelThreshold
+                ? IntStream.range(0, chunks(current.size)).parallel()
+                .mapToObj(chunk -> Partial.of(ages, chunkFrom(chunk, current.size), chunkFrom(chunk + 1, current.size)))
+                .reduce(Partial::merge).orElseGet(Partial::new)
+                : Partial.of(ages, 0, current.size);
+        return new AgeStatsDto(null, total.count, total.sum, total.max, total.min);
+    }
+
+    //    select team.name, count/sum/avg/max/min(age) from member join team group by team.name order by team.name
+    public List<AgeStatsDto> ageStatsByTeamName() {
+        Columns current = current();
+        int teams = current.teamIds.length;
+        Grouped grouped = current.size >= parallelThreshold
+                ? IntStream.range(0, chunks(current.size)).parallel()
+                .mapToObj(chunk -> Grouped.of(current, teams, chunkFrom(chunk, current.size), chunkFrom(chunk + 1, current.size)))
+                .reduce(Grouped::merge).orElseGet(() -> new Grouped(teams))
+                : Grouped.of(current, teams, 0, current.size);
+
+//        팀 단위로 모은 뒤 같은 이름끼리 합침 (팀 수만큼이라 작음)
+        Map<String, Partial> byName = new TreeMap<>(Comparator.nullsLast(Comparator.naturalOrder()));
+        for (int code = 0; code < teams; code++) {
+            if (grouped.counts[code] > 0) {
+                Partial partial = new Partial(grouped.counts[code], grouped.sums[code], grouped.maxs[code], grouped.mins[code]);
+                byName.merge(current.teamNames[code], partial, Partial::merge);
+            }
+        }
+        List<AgeStatsDto> results = new ArrayList<>(byName.size());
+        byName.forEach((name, partial) ->
+                results.add(new AgeStatsDto(name, partial.count, partial.sum, partial.max, partial.min)));
+        return results;
+    }
+
+    public long getReloadCount() {
+        return reloads;
+    }
+
+    public void memberChanged(long memberId, int age, Long teamId) {
+        enqueue(new Change(Change.Kind.MEMBER, memberId, age, teamId, null));
+    }
+
+    public void memberDeleted(long memberId) {
+        enqueue(new Change(Change.Kind.MEMBER_DELETED, memberId, 0, null, null));
+    }
+
+    public void teamChanged(long teamId, String name) {
+        enqueue(new Change(Change.Kind.TEAM, teamId, 0, null, name));
+    }
+
+    //    DB 에서 전체 다시 읽음
+    //    읽기 전에 쌓인 변경은 DB 에 이미 있으므로 버리고, 읽는 동안 들어온 변경만 다시 적용 (같은 값을 다시 써도 결과는 같음)
+    public void reload() {
+        synchronized (lock) {
+            reloadLocked();
+        }
+    }
+
+    //    엔티티 이벤트 없이 바뀌었을때(벌크 연산 등) : 버리고 다음 조회때 다시 읽음
+    public void invalidate() {
+        synchronized (lock) {
+            drain();
+            columns = null;
+        }
+    }
+
+    private Columns reloadLocked() {
+        long start = System.nanoTime();
+//        읽는 동안 들어온 변경은 버리지 않고 쌓아둠
+        loading = true;
+        stale = false;
+        Columns loaded;
+        try {
+            drain();
+            deleted.clear();
+            loaded = load();
+            columns = loaded.apply(drain(), deleted);
+        } finally {
+            loading = false;
+        }
+        appliedAt = System.nanoTime();
+        reloads++;
+        log.info("member analytics snapshot loaded {} members, {} teams in {} ms", loaded.size,
+                loaded.teamIds.length, (System.nanoTime() - start) / 1_000_000);
+        return columns;
+    }
+
+    //    스냅샷도 없고 읽는 중도 아니면 처음 읽을때 DB 에서 가져오므로 쌓지 않음
+    //    조회 없이 변경만 계속 쌓이면 버리고 다음 조회때 다시 읽음 (커밋하는 스레드가 lock 을 기다리지 않도록 표시만 함)
+    private void enqueue(Change change) {
+        if (columns == null && !loading) {
+            return;
+        }
+        if (pending.incrementAndGet() > MAX_PENDING_CHANGES) {
+            pending.decrementAndGet();
+            stale = true;
+            return;
+        }
+        changes.add(change);
+    }
+
+    private Columns current() {
+        Columns current = columns;
+        if (current != null && !stale
+                && (changes.isEmpty() || System.nanoTime() - appliedAt < applyIntervalNanos)) {
+            return current;
+        }
+        synchronized (lock) {
+            if (columns == null || stale) {
+                return reloadLocked();
+            }
+            columns = columns.apply(drain(), deleted);
+            appliedAt = System.nanoTime();
+            return columns;
+        }
+    }
+
+    private void refreshIfLoaded() {
+        try {
+            if (columns != null) {
+                reload();
+            }
+        } catch (RuntimeException e) {
+            log.warn("member analytics snapshot refresh failed", e);
+        }
+    }
+
+    private List<Change> drain() {
+        List<Change> drained = new ArrayList<>();
+        Change change;
+        while ((change = changes.poll()) != null) {
+            drained.add(change);
+        }
+        pending.addAndGet(-drained.size());
+        return drained;
+    }
+
+    private Columns load() {
+        Map<Long, Integer> teamCodes = new HashMap<>();
+        List<Long> teamIds = new ArrayList<>();
+        List<String> teamNames = new ArrayList<>();
+        jdbcTemplate.query("select id, name from team", rs -> {
+            teamCodes.put(rs.getLong(1), teamIds.size());
+            teamIds.add(rs.getLong(1));
+            teamNames.add(rs.getString(2));
+        });
+
+        Columns loaded = new Columns(1024);
+        loaded.teamCodeOf.putAll(teamCodes);
+        loaded.teamIds = teamIds.stream().mapToLong(Long::longValue).toArray();
+        loaded.teamNames = teamNames.toArray(new String[0]);
+        jdbcTemplate.query("select member_id, age, team_id from member", rs -> {
+            long teamId = rs.getLong(3);
+            Integer code = rs.wasNull() ? null : teamCodes.get(teamId);
+            loaded.append(rs.getLong(1), rs.getInt(2), code == null ? NO_TEAM : code);
+        });
+        return loaded;
+    }
+
+    private int chunks(int size) {
+        return Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() * 4, size / Math.max(1, parallelThreshold / 4)));
+    }
+
+    private int chunkFrom(int chunk, int size) {
+        return (int) ((long) size * chunk / chunks(size));
+    }
+
+    /**
+     * 컬럼 배열 (columns 로 공개된 뒤에는 바꾸지 않고 변경은 복사본에서만)
+     */
+    private static class Columns {
+        private long[] memberIds;
+        private int[] ages;
+        private int[] teamCodes;
+        private int size;
+        private RowIndex rowOf = new RowIndex(16);
+
+        //    팀 사전 : code -> team id / name
+        private long[] teamIds = new long[0];
+        private String[] teamNames = new String[0];
+        private final Map<Long, Integer> teamCodeOf = new HashMap<>();
+
+        private Columns(int capacity) {
+            memberIds = new long[capacity];
+            ages = new int[capacity];
+            teamCodes = new int[capacity];
+        }
+
+        private void append(long memberId, int age, int teamCode) {
+            if (size == ages.length) {
+                int capacity = Math.max(16, size * 2);
+                memberIds = Arrays.copyOf(memberIds, capacity);
+                ages = Arrays.copyOf(ages, capacity);
+                teamCodes = Arrays.copyOf(teamCodes, capacity);
+            }
+            memberIds[size] = memberId;
+            ages[size] = age;
+            teamCodes[size] = teamCode;
+            rowOf.put(memberId, size);
+            size++;
+        }
+
+        //    삭제는 마지막 행을 빈자리로 옮겨서 배열에 빈칸(삭제 표시)이 없도록 유지
+        private void remove(long memberId) {
+            int row = rowOf.remove(memberId);
+            if (row < 0) {
+                return;
+            }
+            int last = --size;
+            if (row != last) {
+                memberIds[row] = memberIds[last];
+                ages[row] = ages[last];
+                teamCodes[row] = teamCodes[last];
+                rowOf.put(memberIds[row], row);
+            }
+        }
+
+        private int teamCode(Long teamId) {
+            if (teamId == null) {
+                return NO_TEAM;
+            }
+            Integer code = teamCodeOf.get(teamId);
+            return code != null ? code : addTeam(teamId, null);
+        }
+
+        private int addTeam(long teamId, String name) {
+            int code = teamIds.length;
+            teamIds = Arrays.copyOf(teamIds, code + 1);
+            teamNames = Arrays.copyOf(teamNames, code + 1);
+            teamIds[code] = teamId;
+            teamNames[code] = name;
+            teamCodeOf.put(teamId, code);
+            return code;
+        }
+
+        //    deleted : 삭제 이벤트를 받은 id (여기서 추가하고, 이후에 온 같은 id 의 변경은 무시)
+        private Columns apply(List<Change> changes, Set<Long> deleted) {
+            if (changes.isEmpty()) {
+                return this;
+            }
+            Columns next = copy();
+            for (Change change : changes) {
+                switch (change.kind) {
+                    case TEAM:
+                        Integer code = next.teamCodeOf.get(change.id);
+                        if (code == null) {
+                            next.addTeam(change.id, change.name);
+                        } else {
+                            next.teamNames[code] = change.name;
+                        }
+                        break;
+                    case MEMBER:
+                        if (deleted.contains(change.id)) {
+                            break;
+                        }
+                        int row = next.rowOf.get(change.id);
+                        if (row < 0) {
+                            next.append(change.id, change.age, next.teamCode(change.teamId));
+                        } else {
+                            next.ages[row] = change.age;
+                            next.teamCodes[row] = next.teamCode(change.teamId);
+                        }
+                        break;
+                    default:
+                        deleted.add(change.id);
+                        next.remove(change.id);
+                }
+            }
+            return next;
+        }
+
+        private Columns copy() {
+            Columns copy = new Columns(0);
+            copy.memberIds = Arrays.copyOf(memberIds, Math.max(16, size + size / 8));
+            copy.ages = Arrays.copyOf(ages, copy.memberIds.length);
+            copy.teamCodes = Arrays.copyOf(teamCodes, copy.memberIds.length);
+            copy.size = size;
+            copy.rowOf = rowOf.copy();
+            copy.teamIds = teamIds.clone();
+            copy.teamNames = teamNames.clone();
+            copy.teamCodeOf.putAll(teamCodeOf);
+            return copy;
+        }
+    }
+
+    /**
+     * member id -> 행 번호 (long/int 배열 open addressing, 복사가 배열 두개 복사로 끝남)
+     */
+    private static class RowIndex {
+        private long[] keys;
+        //        행 번호 + 1 (0 은 빈칸)
+        private int[] rows;
+        private int size;
+
+        private RowIndex(int capacity) {
+            keys = new long[capacity];
+            rows = new int[capacity];
+        }
+
+        private int get(long key) {
+            int mask = keys.length - 1;
+            for (int slot = slot(key, mask); rows[slot] != 0; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return rows[slot] - 1;
+                }
+            }
+            return -1;
+        }
+
+        private void put(long key, int row) {
+            if ((size + 1) * 2 > keys.length) {
+                resize(keys.length * 2);
+            }
+            int mask = keys.length - 1;
+            int slot = slot(key, mask);
+            while (rows[slot] != 0 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (rows[slot] == 0) {
+                size++;
+            }
+            keys[slot] = key;
+            rows[slot] = row + 1;
+        }
+
+        //    지운 자리 뒤로 이어진 항목을 당겨서 빈칸 때문에 탐색이 끊기지 않도록 함
+        private int remove(long key) {
+            int mask = keys.length - 1;
+            int slot = slot(key, mask);
+            while (rows[slot] != 0 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (rows[slot] == 0) {
+                return -1;
+            }
+            int removed = rows[slot] - 1;
+            int next = slot;
+            while (true) {
+                next = (next + 1) & mask;
+                if (rows[next] == 0) {
+                    break;
+                }
+                int home = slot(keys[next], mask);
+                boolean movable = slot <= next ? (home <= slot || home > next) : (home <= slot && home > next);
+                if (movable) {
+                    keys[slot] = keys[next];
+                    rows[slot] = rows[next];
+                    slot = next;
+                }
+            }
+            rows[slot] = 0;
+            size--;
+            return removed;
+        }
+
+        private RowIndex copy() {
+            RowIndex copy = new RowIndex(0);
+            copy.keys = keys.clone();
+            copy.rows = rows.clone();
+            copy.size = size;
+            return copy;
+        }
+
+        private void resize(int capacity) {
+            long[] oldKeys = keys;
+            int[] oldRows = rows;
+            keys = new long[capacity];
+            rows = new int[capacity];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldRows[i] != 0) {
+                    put(oldKeys[i], oldRows[i] - 1);
+                }
+            }
+        }
+
+        private static int slot(long key, int mask) {
+            int hash = Long.hashCode(key) * 0x9E3779B9;
+            return (hash ^ (hash >>> 16)) & mask;
+        }
+    }
+
+    private static class Partial {
+        private long count;
+        private long sum;
+        private int max = Integer.MIN_VALUE;
+        private int min = Integer.MAX_VALUE;
+
+        private Partial() {
+        }
+
+        private Partial(long count, long sum, int max, int min) {
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+            this.min = min;
+        }
+
+        //    분기 없는 단순 루프 (JIT 가 sum/max/min 을 벡터화할수 있는 형태)
+        private static Partial of(int[] ages, int from, int to) {
+            long sum = 0;
+            int max = Integer.MIN_VALUE;
+            int min = Integer.MAX_VALUE;
+            for (int i = from; i < to; i++) {
+                int age = ages[i];
+                sum += age;
+                max = Math.max(max, age);
+                min = Math.min(min, age);
+            }
+            return new Partial(to - from, sum, max, min);
+        }
+
+        private Partial merge(Partial other) {
+            return new Partial(count + other.count, sum + other.sum,
+                    Math.max(max, other.max), Math.min(min, other.min));
+        }
+    }
+
+    //    팀 code 별 부분 집계
+    private static class Grouped {
+        private final long[] counts;
+        private final long[] sums;
+        private final int[] maxs;
+        private final int[] mins;
+
+        private Grouped(int teams) {
+            counts = new long[teams];
+            sums = new long[teams];
+            maxs = new int[teams];
+            mins = new int[teams];
+            Arrays.fill(maxs, Integer.MIN_VALUE);
+            Arrays.fill(mins, Integer.MAX_VALUE);
+        }
+
+        private static Grouped of(Columns columns, int teams, int from, int to) {
+            Grouped grouped = new Grouped(teams);
+            int[] ages = columns.ages;
+            int[] teamCodes = columns.teamCodes;
+            for (int i = from; i < to; i++) {
+                int code = teamCodes[i];
+                if (code < 0) {
+                    continue;
+                }
+                int age = ages[i];
+                grouped.counts[code]++;
+                grouped.sums[code] += age;
+                grouped.maxs[code] = Math.max(grouped.maxs[code], age);
+                grouped.mins[code] = Math.min(grouped.mins[code], age);
+            }
+            return grouped;
+        }
+
+        private Grouped merge(Grouped other) {
+            Grouped merged = new Grouped(counts.length);
+            for (int code = 0; code < counts.length; code++) {
+                merged.counts[code] = counts[code] + other.counts[code];
+                merged.sums[code] = sums[code] + other.sums[code];
+                merged.maxs[code] = Math.max(maxs[code], other.maxs[code]);
+                merged.mins[code] = Math.min(mins[code], other.mins[code]);
+            }
+            return merged;
+        }
+    }
+
+    private static class Change {
+        private enum Kind {
+            MEMBER, MEMBER_DELETED, TEAM
+        }
+
+        private final Kind kind;
+        private final long id;
+        private final int age;
+        private final Long teamId;
+        private final String name;
+
+        private Change(Kind kind, long id, int age, Long teamId, String name) {
+            this.kind = kind;
+            this.id = id;
+            this.age = age;
+            this.teamId = teamId;
+            this.name = name;
+        }
+    }
+}
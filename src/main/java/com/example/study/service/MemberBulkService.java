@@ -0,0 +1,303 @@
+package com.example.study.service;
+
+import com.example.study.dto.MemberTeamSearchCondition;
+import com.example.study.dto.TeamNotFoundException;
+import com.example.study.entity.BulkJobCheckpoint;
+import com.example.study.entity.QMember;
+import com.example.study.entity.Team;
+import com.example.study.repository.MemberRepository;
+import com.example.study.repository.MemberUsernameIndex;
+import com.example.study.repository.TeamStatsWriter;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * member 벌크 update / delete 를 member_id 구간(청크)으로 나눠서 청크마다 커밋
+ * 한 문장으로 테이블 전체를 잠그지 않고, 청크 사이에 쉬어서 다른 트랜잭션/복제가 따라올수 있게 함
+ * 진행상황은 BulkJobCheckpoint 에 청크와 같은 트랜잭션으로 저장 -> 같은 jobName 으로 다시 호출하면 이어서 실행
+ * (이미 완료된 jobName 이면 아무것도 하지 않고 이전 결과를 돌려줌)
+ * 검색/카운트 캐시는 MemberWriteStatementInspector 가 벌크 SQL 을 보고 비움
+ * 엔티티 이벤트가 없으므로 커밋된 청크가 있으면 그 구간의 팀 team_stats, (username 을 바꿨으면) username gram 을 다시 만들고 나이 집계 스냅샷은 버림
+ */
+@Slf4j
+@Service
+public class MemberBulkService {
+
+    private final JPAQueryFactory jpaQueryFactory;
+    private final EntityManager em;
+    private final MemberRepository memberRepository;
+    private final MemberAnalyticsSnapshot memberAnalyticsSnapshot;
+    private final TeamStatsWriter teamStatsWriter;
+    private final MemberUsernameIndex memberUsernameIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final Duration pause;
+
+    @Autowired
+    public MemberBulkService(JPAQueryFactory jpaQueryFactory, EntityManager em,
+                             MemberRepository memberRepository, MemberAnalyticsSnapshot memberAnalyticsSnapshot,
+                             TeamStatsWriter teamStatsWriter, MemberUsernameIndex memberUsernameIndex,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${member.bulk.chunk-size:1000}") int chunkSize,
+                             @Value("${member.bulk.pause:100ms}") Duration pause) {
+        this.jpaQueryFactory = jpaQueryFactory;
+        this.em = em;
+        this.memberRepository = memberRepository;
+        this.memberAnalyticsSnapshot = memberAnalyticsSnapshot;
+        this.teamStatsWriter = teamStatsWriter;
+        this.memberUsernameIndex = memberUsernameIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.pause = pause;
+    }
+
+    //    ex) update("adult-rename", member.age.goe(20), clause -> clause.set(member.username, "비회원"))
+    public BulkResult update(String jobName, Predicate where, Consumer<JPAUpdateClause> setter) {
+        Set<Long> teamIds = new HashSet<>();
+        Set<Path<?>> paths = new HashSet<>();
+        return run(jobName, (fromExclusive, toInclusive) -> {
+            teamIds.addAll(teamIdsIn(fromExclusive, toInclusive, where));
+            TrackingUpdateClause clause = new TrackingUpdateClause(em);
+            setter.accept(clause);
+            long rows = clause.where(range(fromExclusive, toInclusive), where).execute();
+            paths.addAll(clause.paths);
+//            팀을 옮기는 update 면 옮겨간 팀도 다시 계산 (update 후에는 where 에 안맞을수 있으므로 구간 전체)
+            if (rows > 0 && clause.paths.contains(QMember.member.team)) {
+                teamIds.addAll(teamIdsIn(fromExclusive, toInclusive, null));
+            }
+            return rows;
+        }, (fromExclusive, toInclusive) -> {
+            teamStatsWriter.refresh(teamIds);
+            if (paths.contains(QMember.member.username)) {
+                memberUsernameIndex.reindex(fromExclusive, toInclusive);
+            }
+        });
+    }
+
+    public BulkResult delete(String jobName, Predicate where) {
+        Set<Long> teamIds = new HashSet<>();
+        return run(jobName, (fromExclusive, toInclusive) -> {
+            teamIds.addAll(teamIdsIn(fromExclusive, toInclusive, where));
+            return jpaQueryFactory
+                    .delete(QMember.member)
+                    .where(range(fromExclusive, toInclusive), where)
+                    .execute();
+        }, (fromExclusive, toInclusive) -> {
+            teamStatsWriter.refresh(teamIds);
+            memberUsernameIndex.removeOrphans(fromExclusive, toInclusive);
+        });
+    }
+
+    //    조건에 맞는 회원을 teamId 팀으로 이동 (청크마다 update 한번 + team_stats 반영)
+    //    affectedRows = 실제로 팀이 바뀐 회원 수 (이미 그 팀인 회원은 제외)
+    public BulkResult reassignTeam(String jobName, MemberTeamSearchCondition condition, Long teamId) {
+        if (transactionTemplate.execute(status -> em.find(Team.class, teamId)) == null) {
+            throw new TeamNotFoundException(teamId);
+        }
+//        team_stats 는 memberRepository.reassignTeam 이 청크마다 반영
+        return run(jobName,
+                (fromExclusive, toInclusive) -> memberRepository.reassignTeam(condition, teamId, fromExclusive, toInclusive),
+                (fromExclusive, toInclusive) -> {
+                });
+    }
+
+    public Optional<BulkJobCheckpoint> findCheckpoint(String jobName) {
+        return Optional.ofNullable(transactionTemplate.execute(status -> em.find(BulkJobCheckpoint.class, jobName)));
+    }
+
+    //    이번 호출에서 커밋된 청크가 있으면 그 member_id 구간만 파생 데이터를 맞춤 (중간에 실패해도 커밋된 청크는 남음)
+    //    resync 가 실패해도 작업 자체의 예외를 덮지 않음
+    private BulkResult run(String jobName, ChunkOperation operation, Resync resync) {
+        BulkJobCheckpoint checkpoint = transactionTemplate.execute(status -> start(jobName));
+        long firstId = checkpoint.getLastId();
+        long rowsBefore = checkpoint.getAffectedRows();
+        long start = System.nanoTime();
+        RuntimeException failure = null;
+
+        try {
+            while (checkpoint.getStatus() != BulkJobCheckpoint.Status.COMPLETED) {
+                try {
+                    checkpoint = transactionTemplate.execute(status -> chunk(jobName, operation));
+                } catch (RuntimeException e) {
+                    transactionTemplate.executeWithoutResult(status ->
+                            em.find(BulkJobCheckpoint.class, jobName).fail());
+                    throw new IllegalStateException("bulk job " + jobName + " failed after member_id "
+                            + checkpoint.getLastId() + ", run again to resume", e);
+                }
+                log.info("bulk job {} : member_id {} / {}, {} rows in {} chunks", jobName,
+                        checkpoint.getLastId(), checkpoint.getMaxId(), checkpoint.getAffectedRows(), checkpoint.getChunks());
+                if (checkpoint.getStatus() != BulkJobCheckpoint.Status.COMPLETED) {
+                    throttle();
+                }
+            }
+            return new BulkResult(checkpoint, (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            if (checkpoint.getAffectedRows() > rowsBefore) {
+                resync(jobName, resync, firstId, checkpoint.getLastId(), failure);
+            }
+        }
+    }
+
+    private void resync(String jobName, Resync resync, long fromExclusive, long toInclusive, RuntimeException failure) {
+        try {
+            resync.execute(fromExclusive, toInclusive);
+        } catch (RuntimeException e) {
+            if (failure == null) {
+                throw e;
+            }
+            log.warn("bulk job {} : resync of member_id ({}, {}] failed", jobName, fromExclusive, toInclusive, e);
+            failure.addSuppressed(e);
+        } finally {
+//            엔티티 이벤트가 없으므로 나이 집계 스냅샷은 다음 조회때 다시 읽음
+            memberAnalyticsSnapshot.invalidate();
+        }
+    }
+
+    //    처음이면 대상 구간(min ~ max member_id)을 고정, 실패했던 작업이면 이어서
+    private BulkJobCheckpoint start(String jobName) {
+        BulkJobCheckpoint checkpoint = em.find(BulkJobCheckpoint.class, jobName);
+        if (checkpoint != null) {
+            if (checkpoint.getStatus() != BulkJobCheckpoint.Status.COMPLETED) {
+                log.info("resuming bulk job {} after member_id {}", jobName, checkpoint.getLastId());
+                checkpoint.resume();
+            }
+            return checkpoint;
+        }
+        Long minId = jpaQueryFactory.select(QMember.member.id.min()).from(QMember.member).fetchOne();
+        Long maxId = jpaQueryFactory.select(QMember.member.id.max()).from(QMember.member).fetchOne();
+        checkpoint = minId == null
+                ? new BulkJobCheckpoint(jobName, 0L, 0L)
+                : new BulkJobCheckpoint(jobName, minId - 1, maxId);
+        em.persist(checkpoint);
+        return checkpoint;
+    }
+
+    //    청크 하나 = 구간 update/delete + 체크포인트 갱신, 커밋 후에는 영속성 컨텍스트를 비움
+    private BulkJobCheckpoint chunk(String jobName, ChunkOperation operation) {
+        BulkJobCheckpoint checkpoint = em.find(BulkJobCheckpoint.class, jobName);
+        long fromExclusive = checkpoint.getLastId();
+        long toInclusive = upperBound(fromExclusive, checkpoint.getMaxId());
+
+        long rows = operation.execute(fromExclusive, toInclusive);
+        checkpoint.chunkDone(toInclusive, rows);
+        em.flush();
+        em.clear();
+        return checkpoint;
+    }
+
+    //    청크 크기만큼 뒤의 member_id (PK 인덱스로 바로 찾음), 남은게 청크보다 적으면 maxId
+    private long upperBound(long fromExclusive, long maxId) {
+        Long upper = jpaQueryFactory
+                .select(QMember.member.id)
+                .from(QMember.member)
+                .where(QMember.member.id.gt(fromExclusive), QMember.member.id.loe(maxId))
+                .orderBy(QMember.member.id.asc())
+                .offset(chunkSize - 1)
+                .limit(1)
+                .fetchOne();
+        return upper != null ? upper : maxId;
+    }
+
+    private List<Long> teamIdsIn(long fromExclusive, long toInclusive, Predicate where) {
+        return jpaQueryFactory
+                .select(QMember.member.team.id)
+                .distinct()
+                .from(QMember.member)
+                .where(range(fromExclusive, toInclusive), where, QMember.member.team.isNotNull())
+                .fetch();
+    }
+
+    private static Predicate range(long fromExclusive, long toInclusive) {
+        return QMember.member.id.gt(fromExclusive).and(QMember.member.id.loe(toInclusive));
+    }
+
+    private void throttle() {
+        if (pause.isZero() || pause.isNegative()) {
+            return;
+        }
+        try {
+            Thread.sleep(pause.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("bulk job interrupted", e);
+        }
+    }
+
+    private interface ChunkOperation {
+        long execute(long fromExclusive, long toInclusive);
+    }
+
+    //    커밋된 구간 (fromExclusive, toInclusive] 의 team_stats / username gram 맞추기
+    private interface Resync {
+        void execute(long fromExclusive, long toInclusive);
+    }
+
+    //    setter 가 set 한 컬럼 기록 (username 을 바꿨을때만 gram 재생성)
+    private static class TrackingUpdateClause extends JPAUpdateClause {
+        private final Set<Path<?>> paths = new HashSet<>();
+
+        TrackingUpdateClause(EntityManager em) {
+            super(em, QMember.member);
+        }
+
+        @Override
+        public <T> JPAUpdateClause set(Path<T> path, T value) {
+            paths.add(path);
+            return super.set(path, value);
+        }
+
+        @Override
+        public <T> JPAUpdateClause set(Path<T> path, Expression<? extends T> expression) {
+            paths.add(path);
+            return super.set(path, expression);
+        }
+
+        @Override
+        public <T> JPAUpdateClause setNull(Path<T> path) {
+            paths.add(path);
+            return super.setNull(path);
+        }
+
+        @Override
+        public JPAUpdateClause set(List<? extends Path<?>> paths, List<?> values) {
+            this.paths.addAll(paths);
+            return super.set(paths, values);
+        }
+    }
+
+    @Getter
+    public static class BulkResult {
+        private final String jobName;
+        private final long affectedRows;
+        private final long chunks;
+        private final long elapsedMillis;
+
+        BulkResult(BulkJobCheckpoint checkpoint, long elapsedMillis) {
+            this.jobName = checkpoint.getJobName();
+            this.affectedRows = checkpoint.getAffectedRows();
+            this.chunks = checkpoint.getChunks();
+            this.elapsedMillis = elapsedMillis;
+        }
+    }
+}
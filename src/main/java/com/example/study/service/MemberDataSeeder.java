@@ -0,0 +1,210 @@
+package com.example.study.service;
+
+import com.example.study.config.PooledSequenceGenerator;
+import com.example.study.repository.MemberUsernameIndex;
+import com.example.study.repository.TeamStatsWriter;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 부하 테스트용 대량 데이터 생성
+ * JPA 로 한건씩 persist 하지 않고 JDBC 배치 insert + id 블록 예약으로 넣음
+ * chunkSize 단위로 커밋하고 여러 스레드가 chunk 를 나눠서 처리
+ */
+@Slf4j
+@Service
+public class MemberDataSeeder {
+
+    //    엔티티 @GenericGenerator 와 같은 시퀀스 / 블록 크기 (PooledSequenceGenerator)
+    private static final String MEMBER_SEQUENCE = "member_seq";
+    private static final String TEAM_SEQUENCE = "team_seq";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MemberUsernameIndex memberUsernameIndex;
+    private final TeamStatsWriter teamStatsWriter;
+    private final int idAllocationSize;
+
+    public MemberDataSeeder(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                            MemberUsernameIndex memberUsernameIndex, TeamStatsWriter teamStatsWriter,
+                            @Value("${member.id.allocation-size:" + PooledSequenceGenerator.DEFAULT_ALLOCATION_SIZE + "}")
+                            int idAllocationSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.memberUsernameIndex = memberUsernameIndex;
+        this.teamStatsWriter = teamStatsWriter;
+        this.idAllocationSize = idAllocationSize;
+    }
+
+    public SeedResult seed(MemberSeedSpec spec) {
+        validate(spec);
+        long start = System.nanoTime();
+
+        long[] teamIds = insertTeams(spec);
+        double[] teamCdf = zipfCdf(spec.getTeamCount(), spec.getZipfExponent());
+
+        long chunks = (spec.getMemberCount() + spec.getChunkSize() - 1) / spec.getChunkSize();
+        AtomicLong inserted = new AtomicLong();
+        SequenceIdAllocator memberIds = new SequenceIdAllocator(jdbcTemplate, MEMBER_SEQUENCE, idAllocationSize);
+
+        ExecutorService executor = Executors.newFixedThreadPool(spec.getThreads());
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (long chunk = 0; chunk < chunks; chunk++) {
+                long from = chunk * spec.getChunkSize();
+                int size = (int) Math.min(spec.getChunkSize(), spec.getMemberCount() - from);
+                long chunkIndex = chunk;
+                futures.add(executor.submit(() -> {
+                    insertMembers(spec, chunkIndex, from, size, teamIds, teamCdf, memberIds);
+                    long done = inserted.addAndGet(size);
+                    if (chunkIndex % 100 == 0) {
+                        log.info("seeded {} / {} members", done, spec.getMemberCount());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("seeding interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("seeding failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        SeedResult result = new SeedResult(teamIds.length, inserted.get(), (System.nanoTime() - start) / 1_000_000);
+        log.info("seeded {} teams, {} members in {} ms", result.getTeams(), result.getMembers(), result.getElapsedMillis());
+        return result;
+    }
+
+    //    0 이면 청크 수 계산(나누기)이나 팀 분포(빈 배열)에서 깨지므로 먼저 거름
+    private static void validate(MemberSeedSpec spec) {
+        if (spec.getMemberCount() <= 0) {
+            throw new IllegalArgumentException("memberCount must be positive: " + spec.getMemberCount());
+        }
+        if (spec.getChunkSize() <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + spec.getChunkSize());
+        }
+        if (spec.getTeamCount() <= 0) {
+            throw new IllegalArgumentException("teamCount must be positive: " + spec.getTeamCount());
+        }
+        if (spec.getThreads() <= 0) {
+            throw new IllegalArgumentException("threads must be positive: " + spec.getThreads());
+        }
+    }
+
+    private long[] insertTeams(MemberSeedSpec spec) {
+        return transactionTemplate.execute(status -> {
+            long[] ids = new SequenceIdAllocator(jdbcTemplate, TEAM_SEQUENCE, idAllocationSize).allocate(spec.getTeamCount());
+            jdbcTemplate.batchUpdate("insert into team (id, name) values (?, ?)", new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    ps.setLong(1, ids[i]);
+                    ps.setString(2, spec.getTeamNamePrefix() + (i + 1));
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return ids.length;
+                }
+            });
+            teamStatsWriter.create(ids);
+            return ids;
+        });
+    }
+
+    //    chunk 하나 = 트랜잭션 하나 = JDBC 배치 하나
+    private void insertMembers(MemberSeedSpec spec, long chunkIndex, long from, int size,
+                               long[] teamIds, double[] teamCdf, SequenceIdAllocator idAllocator) {
+//        chunk 마다 시드를 고정해서 스레드 수와 상관없이 같은 데이터가 나오게 함
+        Random random = new Random(spec.getRandomSeed() * 31 + chunkIndex);
+        transactionTemplate.executeWithoutResult(status -> {
+            long[] ids = idAllocator.allocate(size);
+            String[] usernames = new String[size];
+            int[] ages = new int[size];
+            long[] memberTeamIds = new long[size];
+            for (int i = 0; i < size; i++) {
+                usernames[i] = spec.getUsernamePrefix() + (from + i);
+                ages[i] = nextAge(random, spec);
+                memberTeamIds[i] = teamIds[nextTeam(random, teamCdf)];
+            }
+            jdbcTemplate.batchUpdate("insert into member (member_id, username, age, team_id) values (?, ?, ?, ?)",
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            ps.setLong(1, ids[i]);
+                            ps.setString(2, usernames[i]);
+                            ps.setInt(3, ages[i]);
+                            ps.setLong(4, memberTeamIds[i]);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return size;
+                        }
+                    });
+//            엔티티 이벤트를 안거치므로 username trigram, 팀 통계도 같은 트랜잭션에서 직접 반영
+            memberUsernameIndex.insert(ids, usernames);
+            teamStatsWriter.add(memberTeamIds, ages);
+        });
+    }
+
+    //    i 번째 팀 비중 1 / i^s 의 누적분포
+    static double[] zipfCdf(int teamCount, double exponent) {
+        double[] cdf = new double[teamCount];
+        double sum = 0;
+        for (int i = 0; i < teamCount; i++) {
+            sum += 1.0 / Math.pow(i + 1, exponent);
+            cdf[i] = sum;
+        }
+        for (int i = 0; i < teamCount; i++) {
+            cdf[i] /= sum;
+        }
+        return cdf;
+    }
+
+    static int nextTeam(Random random, double[] cdf) {
+        int index = Arrays.binarySearch(cdf, random.nextDouble());
+        int team = index >= 0 ? index : -index - 1;
+        return Math.min(team, cdf.length - 1);
+    }
+
+    static int nextAge(Random random, MemberSeedSpec spec) {
+        long age = Math.round(spec.getAgeMean() + random.nextGaussian() * spec.getAgeStdDev());
+        return (int) Math.max(spec.getAgeMin(), Math.min(spec.getAgeMax(), age));
+    }
+
+    @Getter
+    public static class SeedResult {
+
+        private final int teams;
+        private final long members;
+        private final long elapsedMillis;
+
+        public SeedResult(int teams, long members, long elapsedMillis) {
+            this.teams = teams;
+            this.members = members;
+            this.elapsedMillis = elapsedMillis;
+        }
+    }
+}
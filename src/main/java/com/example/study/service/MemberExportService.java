@@ -0,0 +1,63 @@
+package com.example.study.service;
+
+import com.example.study.dto.MemberTeamDto;
+import com.example.study.dto.MemberTeamSearchCondition;
+import com.example.study.repository.MemberRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * 검색결과를 NDJSON(한줄에 json 하나)으로 내보내기
+ * 결과를 리스트로 모으지 않고 커서에서 읽는대로 바로 써서 결과 크기와 상관없이 메모리 사용량이 일정함
+ */
+@Service
+@RequiredArgsConstructor
+public class MemberExportService {
+
+    private static final int FLUSH_INTERVAL = 1000;
+    private static final byte[] LINE_SEPARATOR = {'\n'};
+
+    private final MemberRepository memberRepository;
+    private final EntityManager em;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public long exportNdjson(MemberTeamSearchCondition condition, OutputStream out) throws IOException {
+        long count = 0;
+        SequenceWriter writer = objectMapper.writerFor(MemberTeamDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n")
+                .writeValues(out);
+
+        try (Stream<MemberTeamDto> rows = memberRepository.streamSearch(condition)) {
+            Iterator<MemberTeamDto> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                writer.write(iterator.next());
+                count++;
+
+//                일정 개수마다 응답으로 내보내고 영속성 컨텍스트 정리
+                if (count % FLUSH_INTERVAL == 0) {
+                    writer.flush();
+                    em.clear();
+                }
+            }
+        }
+
+        writer.flush();
+        if (count > 0) {
+            out.write(LINE_SEPARATOR);
+        }
+        out.flush();
+        return count;
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.study.service;
+
+import com.example.study.dto.MemberTeamDto;
+import com.example.study.dto.MemberTeamSearchCondition;
+import com.example.study.dto.SearchPage;
+import com.example.study.repository.MemberCountCache;
+import com.example.study.repository.MemberSearchTemplates;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * searchPageComplex 의 컨텐츠 / 카운트 쿼리를 각각 다른 커넥션(트랜잭션)에서 동시에 실행
+ * 페이지 응답시간이 두 쿼리의 합이 아니라 느린쪽 하나가 됨
+ * 카운트가 count-timeout 안에 안끝나면 토탈 없이 컨텐츠만 돌려줌 (다음 페이지 여부는 존재 확인 쿼리로)
+ * (아직 시작 안한 카운트는 취소, 이미 실행중인 카운트는 끝나면 카운트 캐시에 들어가서 다음 요청에 사용)
+ * 실행중인 쿼리도 각 timeout 에서 DB 가 취소하도록 쿼리 타임아웃을 걸어서 풀 스레드/커넥션을 오래 잡지 않게 함
+ */
+@Slf4j
+@Service
+public class MemberPageService {
+
+    private final MemberSearchTemplates memberSearchTemplates;
+    private final MemberCountCache memberCountCache;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ExecutorService executor;
+    private final Duration contentTimeout;
+    private final Duration countTimeout;
+
+    @Autowired
+    public MemberPageService(MemberSearchTemplates memberSearchTemplates,
+                             MemberCountCache memberCountCache,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${member.parallel-page.threads:8}") int threads,
+                             @Value("${member.parallel-page.queue-capacity:100}") int queueCapacity,
+                             @Value("${member.parallel-page.content-timeout:5s}") Duration contentTimeout,
+                             @Value("${member.parallel-page.count-timeout:500ms}") Duration countTimeout) {
+        this(memberSearchTemplates, memberCountCache, transactionManager,
+                boundedExecutor(threads, queueCapacity), contentTimeout, countTimeout);
+    }
+
+    MemberPageService(MemberSearchTemplates memberSearchTemplates,
+                      MemberCountCache memberCountCache,
+                      PlatformTransactionManager transactionManager,
+                      ExecutorService executor,
+                      Duration contentTimeout,
+                      Duration countTimeout) {
+        this.memberSearchTemplates = memberSearchTemplates;
+        this.memberCountCache = memberCountCache;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.executor = executor;
+        this.contentTimeout = contentTimeout;
+        this.countTimeout = countTimeout;
+    }
+
+    //    큐가 가득 차면 요청 스레드에서 직접 실행 (순차 실행과 같아짐)
+    private static ExecutorService boundedExecutor(int threads, int queueCapacity) {
+        return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("member-page-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public SearchPage<MemberTeamDto> searchPage(MemberTeamSearchCondition condition, Pageable pageable) {
+        long start = System.nanoTime();
+        Long cachedTotal = memberCountCache.getIfPresent(condition);
+
+//        컨텐츠를 먼저 제출 (카운트 캐시에 있으면 카운트 쿼리는 생략)
+        Future<List<MemberTeamDto>> content = submit(() -> memberSearchTemplates.fetch(condition, pageable, contentTimeout));
+        Future<Long> count = cachedTotal != null ? null
+                : submit(() -> memberCountCache.get(condition, () -> memberSearchTemplates.count(condition, countTimeout)));
+
+        List<MemberTeamDto> results;
+        try {
+            results = await(content, contentTimeout.toNanos() - (System.nanoTime() - start));
+        } catch (RuntimeException e) {
+            if (count != null) {
+                count.cancel(false);
+            }
+            throw e;
+        }
+        if (cachedTotal != null) {
+            return SearchPage.of(results, pageable, cachedTotal);
+        }
+
+//        컨텐츠만으로 토탈을 알수 있으면(마지막 페이지 등) 카운트를 기다리지 않음
+        Long totalFromContent = totalFromContent(results, pageable);
+        if (totalFromContent != null) {
+            count.cancel(false);
+            return SearchPage.of(results, pageable, totalFromContent);
+        }
+
+        try {
+            long total = await(count, countTimeout.toNanos() - (System.nanoTime() - start));
+            return SearchPage.of(results, pageable, total);
+        } catch (QueryTimeoutException e) {
+            log.debug("member count timed out after {}, returning page without total", countTimeout);
+//            다음 페이지 여부는 limit 1 존재 확인으로
+            Boolean hasNext = readOnlyTransaction.execute(status ->
+                    memberSearchTemplates.exists(condition, pageable.getOffset() + pageable.getPageSize()));
+            return SearchPage.withUnknownTotal(results, pageable, Boolean.TRUE.equals(hasNext));
+        }
+    }
+
+    private <T> Future<T> submit(Supplier<T> query) {
+        return executor.submit(() -> readOnlyTransaction.execute(status -> query.get()));
+    }
+
+    //    JDBC 실행중에 인터럽트하면 커넥션이 닫힐수 있으므로 취소는 아직 시작 안한 작업만
+    private <T> T await(Future<T> future, long timeoutNanos) {
+        try {
+            return future.get(Math.max(0, timeoutNanos), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            throw new QueryTimeoutException("member page query timed out", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(false);
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+//            DB 에서 쿼리 타임아웃으로 취소된 경우도 같은 예외로
+            if (e.getCause() instanceof javax.persistence.QueryTimeoutException) {
+                throw new QueryTimeoutException("member page query timed out", e.getCause());
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    //    PageableExecutionUtils.getPage 와 같은 규칙
+    private static Long totalFromContent(List<?> content, Pageable pageable) {
+        if (pageable.getOffset() == 0 && pageable.getPageSize() > content.size()) {
+            return (long) content.size();
+        }
+        if (!content.isEmpty() && pageable.getPageSize() > content.size()) {
+            return pageable.getOffset() + content.size();
+        }
+        return null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
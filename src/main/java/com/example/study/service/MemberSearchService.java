@@ -0,0 +1,146 @@
+package com.example.study.service;
+
+import com.example.study.config.ReplicaLagMonitor;
+import com.example.study.config.ReplicaRoutingDataSource;
+import com.example.study.dto.MemberTeamDto;
+import com.example.study.dto.MemberTeamSearchCondition;
+import com.example.study.repository.MemberJPARepository;
+import com.example.study.repository.MemberRepository;
+import com.example.study.repository.MemberSearchKey;
+import com.example.study.repository.MemberWriteListener;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * /v1 ~ /v3 검색결과 캐시
+ * refreshAfterWrite 가 지나면 이전 결과를 바로 돌려주고 백그라운드에서 다시 조회 (stale-while-revalidate)
+ * member/team 에 쓰기가 생기면 (벌크 update/delete 포함) 세대를 올려서 이전 결과는 더이상 보이지 않게 함
+ * 쓰기 직후(레플리카 max-lag 이내)에 다시 채울때는 프라이머리에서 읽음 (지연된 레플리카의 옛날 결과로 TTL 동안 채워지지 않도록)
+ */
+@Service
+public class MemberSearchService implements MemberWriteListener {
+
+    private final MemberJPARepository memberJPARepository;
+    private final MemberRepository memberRepository;
+    private final ObjectProvider<ReplicaLagMonitor> replicaLagMonitor;
+    private final ExecutorService refreshExecutor;
+    private final LoadingCache<SearchKey, Object> cache;
+
+    //    쓰기 전에 시작된 백그라운드 조회가 끝나도 이전 세대 키에만 들어가므로 새 요청에는 안보임
+    private final AtomicLong generation = new AtomicLong();
+
+    public MemberSearchService(MemberJPARepository memberJPARepository,
+                               MemberRepository memberRepository,
+                               ObjectProvider<ReplicaLagMonitor> replicaLagMonitor,
+                               @Value("${member.search-cache.maximum-size:10000}") long maximumSize,
+                               @Value("${member.search-cache.expire-after-write:10m}") Duration expireAfterWrite,
+                               @Value("${member.search-cache.refresh-after-write:30s}") Duration refreshAfterWrite,
+                               @Value("${member.search-cache.refresh-threads:2}") int refreshThreads) {
+        this.memberJPARepository = memberJPARepository;
+        this.memberRepository = memberRepository;
+        this.replicaLagMonitor = replicaLagMonitor;
+        this.refreshExecutor = Executors.newFixedThreadPool(Math.max(1, refreshThreads));
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .refreshAfterWrite(refreshAfterWrite)
+                .executor(refreshExecutor)
+                .recordStats()
+                .build(this::load);
+    }
+
+    public List<MemberTeamDto> search(MemberTeamSearchCondition condition) {
+        return get(Kind.SEARCH, condition, null);
+    }
+
+    public Page<MemberTeamDto> searchPageSimple(MemberTeamSearchCondition condition, Pageable pageable) {
+        return get(Kind.PAGE_SIMPLE, condition, pageable);
+    }
+
+    public Page<MemberTeamDto> searchPageComplex(MemberTeamSearchCondition condition, Pageable pageable) {
+        return get(Kind.PAGE_COMPLEX, condition, pageable);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T get(Kind kind, MemberTeamSearchCondition condition, Pageable pageable) {
+        SearchKey key = new SearchKey(generation.get(), kind, MemberSearchKey.of(condition), pageable);
+//        쓰기 트랜잭션 안에서는 아직 커밋 안된 변경을 봐야 하므로 캐시를 거치지 않음
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return (T) load(key);
+        }
+        return (T) cache.get(key);
+    }
+
+    private Object load(SearchKey key) {
+        ReplicaLagMonitor monitor = replicaLagMonitor.getIfAvailable();
+        if (monitor != null && monitor.isRecentlyWritten()) {
+            return ReplicaRoutingDataSource.readFromPrimary(() -> query(key));
+        }
+        return query(key);
+    }
+
+    private Object query(SearchKey key) {
+        MemberTeamSearchCondition condition = key.getCondition().toCondition();
+        switch (key.getKind()) {
+            case SEARCH:
+                return Collections.unmodifiableList(memberJPARepository.search(condition));
+            case PAGE_SIMPLE:
+                return memberRepository.searchPageSimple(condition, key.getPageable());
+            case PAGE_COMPLEX:
+                return memberRepository.searchPageComplex(condition, key.getPageable());
+            default:
+                throw new IllegalStateException("unknown search kind " + key.getKind());
+        }
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void onMemberWrite() {
+        invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private enum Kind {
+        SEARCH, PAGE_SIMPLE, PAGE_COMPLEX
+    }
+
+    @lombok.Value
+    private static class SearchKey {
+        long generation;
+        Kind kind;
+        MemberSearchKey condition;
+        Pageable pageable;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.study.service;
+
+import lombok.Data;
+
+/**
+ * 대량 데이터 생성 설정 (member.seed.*)
+ */
+@Data
+public class MemberSeedSpec {
+
+    private long memberCount = 100_000;
+    private int teamCount = 100;
+    //    팀 크기 분포 : i 번째 팀의 비중이 1 / i^zipfExponent (0 이면 균등)
+    private double zipfExponent = 1.0;
+    //    나이 분포 : 평균/표준편차를 가진 정규분포를 min~max 로 자름
+    private double ageMean = 35;
+    private double ageStdDev = 12;
+    private int ageMin = 15;
+    private int ageMax = 80;
+    //    한 트랜잭션(배치)에 넣을 회원 수
+    private int chunkSize = 5_000;
+    private int threads = Math.min(4, Runtime.getRuntime().availableProcessors());
+    private long randomSeed = 42;
+    private String teamNamePrefix = "team";
+    private String usernamePrefix = "member";
+}
@@ -0,0 +1,39 @@
+package com.example.study.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * 시퀀스에서 id 를 한번에 여러개 예약
+ * 시퀀스 값 하나가 [값, 값 + incrementSize) 범위를 의미 (하이버네이트 pooled-lo 와 같은 방식)
+ * -> 애플리케이션이 같은 시퀀스로 id 를 만들어도 겹치지 않음
+ */
+public class SequenceIdAllocator {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String sequenceName;
+    private final int incrementSize;
+
+    public SequenceIdAllocator(JdbcTemplate jdbcTemplate, String sequenceName, int incrementSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.sequenceName = sequenceName;
+        this.incrementSize = incrementSize;
+    }
+
+    public long[] allocate(int count) {
+        int blocks = (count + incrementSize - 1) / incrementSize;
+//        한번의 왕복으로 필요한 블록 수 만큼 시퀀스 값을 가져옴
+        List<Long> starts = jdbcTemplate.queryForList(
+                "select next value for " + sequenceName + " from system_range(1, ?)", Long.class, blocks);
+
+        long[] ids = new long[count];
+        int index = 0;
+        for (Long start : starts) {
+            for (int i = 0; i < incrementSize && index < count; i++) {
+                ids[index++] = start + i;
+            }
+        }
+        return ids;
+    }
+}
@@ -377,6 +377,8 @@ public class QuerydslBasicTest {
                                         .from(memberSub)
                         )
                 )
+//                age 인덱스를 타면 나이순으로 나오므로 저장 순서로 정렬
+                .orderBy(member.id.asc())
                 .fetch();
         assertThat(result)
                 .extracting("age")
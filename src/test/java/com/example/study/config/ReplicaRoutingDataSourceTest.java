@@ -0,0 +1,153 @@
+package com.example.study.config;
+
+import com.example.study.dto.MemberTeamDto;
+import com.example.study.dto.MemberTeamSearchCondition;
+import com.example.study.entity.Member;
+import com.example.study.entity.Team;
+import com.example.study.repository.MemberCountCache;
+import com.example.study.repository.MemberRepository;
+import com.example.study.service.MemberSearchService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 로컬 H2 두개를 프라이머리 / 레플리카로 사용
+ * 복제는 없으므로 양쪽에 다른 데이터를 넣어서 어느쪽에서 읽었는지 확인
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routingPrimary;DB_CLOSE_DELAY=-1",
+        "member.datasource.replica.url=jdbc:h2:mem:routingReplica;DB_CLOSE_DELAY=-1",
+        "member.datasource.replica.username=sa",
+        "member.datasource.replica.lag-query=select lag_millis from replica_status",
+        "member.datasource.replica.max-lag=5s",
+//        테스트에서 직접 check() 를 호출
+        "member.datasource.replica.check-interval=1h"
+})
+class ReplicaRoutingDataSourceTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    MemberSearchService memberSearchService;
+
+    @Autowired
+    MemberCountCache memberCountCache;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    DataSource replicaDataSource;
+
+    JdbcTemplate replica;
+
+    @BeforeEach
+    public void before() {
+        replica = new JdbcTemplate(replicaDataSource);
+        replica.execute("create table if not exists team (id bigint primary key, name varchar(255))");
+        replica.execute("create table if not exists member (member_id bigint primary key, age integer not null, "
+                + "username varchar(255), team_id bigint)");
+        replica.execute("create table if not exists replica_status (lag_millis bigint)");
+        replica.update("insert into team (id, name) values (1, 'routingTeam')");
+        replica.update("insert into member (member_id, age, username, team_id) values (1, 30, 'replicaMember', 1)");
+        replica.update("insert into replica_status (lag_millis) values (0)");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Team team = new Team("routingTeam");
+            entityManager.persist(team);
+            entityManager.persist(new Member("primaryMember", 30, team));
+        });
+        replicaLagMonitor.check();
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        replica.execute("delete from member");
+        replica.execute("delete from team");
+        replica.execute("drop table if exists replica_status");
+        JdbcTemplate primary = new JdbcTemplate(primaryDataSource);
+        primary.update("delete from member");
+        primary.update("delete from team");
+    }
+
+    @Test
+    public void readOnlyCallsGoToReplica() {
+        assertThat(replicaLagMonitor.isAvailable()).isTrue();
+
+        assertThat(memberRepository.search(condition())).extracting("username").containsExactly("replicaMember");
+        assertThat(memberRepository.findByUsername("replicaMember")).hasSize(1);
+        assertThat(memberRepository.findAll()).extracting("username").containsExactly("replicaMember");
+    }
+
+    @Test
+    public void readWriteTransactionGoesToPrimary() {
+        List<MemberTeamDto> result = transactionTemplate.execute(status -> memberRepository.search(condition()));
+
+        assertThat(result).extracting("username").containsExactly("primaryMember");
+    }
+
+    @Test
+    public void laggingReplicaFallsBackToPrimary() {
+        replica.update("update replica_status set lag_millis = 60000");
+        replicaLagMonitor.check();
+
+        assertThat(replicaLagMonitor.isAvailable()).isFalse();
+        assertThat(memberRepository.search(condition())).extracting("username").containsExactly("primaryMember");
+
+//        지연이 풀리면 다시 레플리카로
+        replica.update("update replica_status set lag_millis = 100");
+        replicaLagMonitor.check();
+
+        assertThat(memberRepository.search(condition())).extracting("username").containsExactly("replicaMember");
+    }
+
+    @Test
+    public void failedReplicaCheckFallsBackToPrimary() {
+        replica.execute("drop table replica_status");
+        replicaLagMonitor.check();
+
+        assertThat(replicaLagMonitor.isAvailable()).isFalse();
+        assertThat(memberRepository.search(condition())).extracting("username").containsExactly("primaryMember");
+    }
+
+    @Test
+    public void cacheRefillAfterWriteReadsPrimary() {
+//        before() 에서 쓰기가 있었으므로 max-lag(5s) 동안은 캐시를 레플리카 데이터로 채우지 않음
+        assertThat(replicaLagMonitor.isRecentlyWritten()).isTrue();
+        assertThat(memberRepository.search(condition())).extracting("username").containsExactly("replicaMember");
+        assertThat(memberSearchService.search(condition())).extracting("username").containsExactly("primaryMember");
+
+        assertThat(memberCountCache.get(condition(), () -> 1L)).isEqualTo(1L);
+        assertThat(memberCountCache.getIfPresent(condition())).isNull();
+    }
+
+    private MemberTeamSearchCondition condition() {
+        MemberTeamSearchCondition condition = new MemberTeamSearchCondition();
+        condition.setTeamName("routingTeam");
+        return condition;
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.study.config;
+
+import com.example.study.dto.MemberTeamSearchCondition;
+import com.example.study.entity.Member;
+import com.example.study.entity.Team;
+import com.example.study.repository.MemberRepository;
+import com.p6spy.engine.common.StatementInformation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class SqlProfilerTest {
+
+    @Autowired
+    SqlProfiler sqlProfiler;
+
+    @Autowired
+    SqlProfilerEndpoint sqlProfilerEndpoint;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("profileTeamA");
+        Team teamB = new Team("profileTeamB");
+        entityManager.persist(teamA);
+        entityManager.persist(teamB);
+        entityManager.persist(new Member("profileMember1", 10, teamA));
+        entityManager.persist(new Member("profileMember2", 20, teamA));
+        entityManager.persist(new Member("profileMember3", 30, teamB));
+        entityManager.flush();
+        sqlProfiler.reset();
+    }
+
+    @Test
+    public void aggregatesByQueryShape() {
+        memberRepository.search(condition("profileTeamA"));
+        memberRepository.search(condition("profileTeamB"));
+
+//        리터럴만 다른 SQL 도 같은 모양으로 집계
+        jdbcTemplate.queryForList("select username from member where age > 15 and username like 'profile%'");
+        jdbcTemplate.queryForList("select username from member where age > 25 and username like 'profileMember3'");
+
+        List<SqlProfiler.ShapeSnapshot> shapes = sqlProfilerEndpoint.profile(100, "count").getShapes();
+
+        SqlProfiler.ShapeSnapshot search = shapes.stream()
+                .filter(shape -> shape.getShape().contains("team1_.name=?"))
+                .findFirst().get();
+        assertThat(search.getCount()).isEqualTo(2);
+        assertThat(search.getRows()).isEqualTo(3);
+
+        SqlProfiler.ShapeSnapshot literal = shapes.stream()
+                .filter(shape -> shape.getShape().equals("select username from member where age > ? and username like ?"))
+                .findFirst().get();
+        assertThat(literal.getCount()).isEqualTo(2);
+        assertThat(literal.getRows()).isEqualTo(3);
+        assertThat(literal.getMaxMillis()).isGreaterThan(0);
+    }
+
+    @Test
+    public void topIsOrdered() {
+        memberRepository.search(condition("profileTeamA"));
+        memberRepository.search(condition("profileTeamA"));
+        memberRepository.findByUsername("profileMember1");
+
+        List<SqlProfiler.ShapeSnapshot> top = sqlProfilerEndpoint.profile(1, "count").getShapes();
+
+        assertThat(top).hasSize(1);
+        assertThat(top.get(0).getCount()).isEqualTo(2);
+        assertThat(sqlProfilerEndpoint.profile(10, null).getShapes())
+                .isSortedAccordingTo(Comparator.comparingDouble(SqlProfiler.ShapeSnapshot::getTotalMillis).reversed());
+    }
+
+    @Test
+    public void normalize() {
+        assertThat(SqlProfiler.normalize("select *\n  from member where member_id in (1, 2,3) and username = 'a''b'"))
+                .isEqualTo("select * from member where member_id in (?) and username = ?");
+        assertThat(SqlProfiler.normalize("select member0_.member_id as col_0_0_ from member member0_ where member0_.age>=? limit ?"))
+                .isEqualTo("select member0_.member_id as col_0_0_ from member member0_ where member0_.age>=? limit ?");
+        assertThat(SqlProfiler.normalize("update member set age = 10 where team_id in (?, ?)"))
+                .isEqualTo("update member set age = ? where team_id in (?)");
+    }
+
+    @Test
+    public void slowQueriesAreKeptWithValues() {
+//        샘플링되지 않아도 slow-threshold 를 넘으면 기록
+        SqlProfiler profiler = new SqlProfiler(0.0, Duration.ofMillis(100), 10, 2);
+        StatementInformation statement = new StatementInformation(null);
+
+        for (int i = 1; i <= 3; i++) {
+            statement.setStatementQuery("select * from member where age = " + i);
+            profiler.onAfterAnyExecute(statement, TimeUnit.MILLISECONDS.toNanos(150), null);
+        }
+        statement.setStatementQuery("select 1");
+        profiler.onAfterAnyExecute(statement, TimeUnit.MILLISECONDS.toNanos(50), null);
+
+        assertThat(profiler.slowQueries()).extracting("sql")
+                .containsExactly("select * from member where age = 3", "select * from member where age = 2");
+        assertThat(profiler.top(10, Comparator.comparing(SqlProfiler.ShapeSnapshot::getShape))).isEmpty();
+    }
+
+    private MemberTeamSearchCondition condition(String teamName) {
+        MemberTeamSearchCondition condition = new MemberTeamSearchCondition();
+        condition.setTeamName(teamName);
+        return condition;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.study.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class StatementBudgetAsyncTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    public void streamingExportDoesNotLeakScope() throws Exception {
+        MvcResult result = mockMvc.perform(get("/members/export").param("teamName", "noSuchTeam"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+//        요청 스레드가 반납된 시점에 범위가 남아있으면 다음 요청에 섞임
+        assertThat(StatementScope.current()).isNull();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+        assertThat(StatementScope.current()).isNull();
+    }
+}
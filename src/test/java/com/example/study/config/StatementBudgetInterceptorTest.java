@@ -0,0 +1,80 @@
+package com.example.study.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StatementBudgetInterceptorTest {
+
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/teams");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Test
+    public void exceedingBudgetReportsRepeatedShape() throws Exception {
+        StatementBudgetInterceptor interceptor = new StatementBudgetInterceptor(50, true);
+        HandlerMethod handler = new HandlerMethod(new BudgetController(), "teams");
+
+        interceptor.preHandle(request, response, handler);
+        StatementScope.record("select * from team");
+        for (int i = 0; i < 3; i++) {
+            StatementScope.record("select * from member where team_id=" + i);
+        }
+
+        assertThatThrownBy(() -> interceptor.postHandle(request, response, handler, null))
+                .isInstanceOf(StatementBudgetExceededException.class)
+                .hasMessageContaining("GET /teams exceeded statement budget 2")
+                .hasMessageContaining("4 statements, most repeated x3 : select * from member where team_id=?");
+
+        interceptor.afterCompletion(request, response, handler, null);
+        assertThat(StatementScope.current()).isNull();
+    }
+
+    @Test
+    public void withinBudgetOrLogModeDoesNotFail() throws Exception {
+        HandlerMethod handler = new HandlerMethod(new BudgetController(), "teams");
+
+        StatementBudgetInterceptor failing = new StatementBudgetInterceptor(50, true);
+        failing.preHandle(request, response, handler);
+        StatementScope.record("select * from team");
+        failing.postHandle(request, response, handler, null);
+        failing.afterCompletion(request, response, handler, null);
+
+        StatementBudgetInterceptor logging = new StatementBudgetInterceptor(1, false);
+        HandlerMethod unannotated = new HandlerMethod(new BudgetController(), "members");
+        logging.preHandle(request, response, unannotated);
+        StatementScope.record("select * from member");
+        StatementScope.record("select * from member");
+        logging.postHandle(request, response, unannotated, null);
+        logging.afterCompletion(request, response, unannotated, null);
+
+        assertThat(StatementScope.current()).isNull();
+    }
+
+    @Test
+    public void nestedScopesAddUp() {
+        StatementScope outer = StatementScope.start();
+        StatementScope inner = StatementScope.start();
+        StatementScope.record("select 1");
+        inner.stop();
+        StatementScope.record("select 2");
+        outer.stop();
+
+        assertThat(inner.getCount()).isEqualTo(1);
+        assertThat(outer.getCount()).isEqualTo(2);
+        assertThat(StatementScope.current()).isNull();
+    }
+
+    static class BudgetController {
+
+        @StatementBudget(2)
+        public void teams() {
+        }
+
+        public void members() {
+        }
+    }
+}
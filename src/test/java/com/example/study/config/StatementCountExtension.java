@@ -0,0 +1,49 @@
+package com.example.study.config;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolver;
+
+/**
+ * 테스트 메서드마다 StatementScope 를 열어줌
+ * 테스트 메서드 파라미터로 StatementScope 를 받아서 정확한 쿼리 수를 검증
+ *
+ * <pre>
+ * &#64;ExtendWith(StatementCountExtension.class)
+ * void test(StatementScope statements) {
+ *     em.flush(); em.clear(); statements.reset();
+ *     ...
+ *     assertThat(statements.getCount()).isEqualTo(1);
+ * }
+ * </pre>
+ */
+public class StatementCountExtension implements BeforeEachCallback, AfterEachCallback, ParameterResolver {
+
+    private static final ExtensionContext.Namespace NAMESPACE =
+            ExtensionContext.Namespace.create(StatementCountExtension.class);
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        context.getStore(NAMESPACE).put(StatementScope.class, StatementScope.start());
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        StatementScope scope = context.getStore(NAMESPACE).remove(StatementScope.class, StatementScope.class);
+        if (scope != null) {
+            scope.stop();
+        }
+    }
+
+    @Override
+    public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return parameterContext.getParameter().getType() == StatementScope.class;
+    }
+
+    @Override
+    public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return extensionContext.getStore(NAMESPACE).get(StatementScope.class, StatementScope.class);
+    }
+}
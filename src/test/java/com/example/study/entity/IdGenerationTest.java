@@ -0,0 +1,75 @@
+package com.example.study.entity;
+
+import com.example.study.config.PooledSequenceGenerator;
+import com.example.study.config.StatementCountExtension;
+import com.example.study.config.StatementScope;
+import com.example.study.service.SequenceIdAllocator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+@ExtendWith(StatementCountExtension.class)
+class IdGenerationTest {
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void idsComeFromPooledBlocks(StatementScope statements) {
+        Team team = new Team("idTeam");
+        entityManager.persist(team);
+        statements.reset();
+
+//        블록이 다 떨어졌을때만 시퀀스를 부름 (이전에는 persist 마다 한번)
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Member member = new Member("idMember" + i, i, team);
+            entityManager.persist(member);
+            ids.add(member.getId());
+        }
+
+        assertThat(statements.getCount()).isLessThanOrEqualTo(1);
+        assertThat(statements.getShapes().keySet()).allMatch(sql -> sql.contains("member_seq"));
+        assertThat(jdbcTemplate.queryForObject(
+                "select increment from information_schema.sequences where sequence_name = 'MEMBER_SEQ'", Long.class))
+                .isEqualTo(PooledSequenceGenerator.DEFAULT_ALLOCATION_SIZE);
+        assertThat(ids).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    public void jdbcAllocatedIdsDoNotOverlap() {
+        Team team = new Team("idTeam");
+        entityManager.persist(team);
+        Member first = new Member("idMember", 10, team);
+        entityManager.persist(first);
+
+//        MemberDataSeeder 처럼 같은 시퀀스에서 JDBC 로 블록을 예약해도 엔티티 id 와 겹치지 않음
+        long[] allocated = new SequenceIdAllocator(jdbcTemplate, "member_seq",
+                PooledSequenceGenerator.DEFAULT_ALLOCATION_SIZE).allocate(PooledSequenceGenerator.DEFAULT_ALLOCATION_SIZE * 2);
+
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < PooledSequenceGenerator.DEFAULT_ALLOCATION_SIZE * 2; i++) {
+            Member member = new Member("idMember" + i, i, team);
+            entityManager.persist(member);
+            ids.add(member.getId());
+        }
+
+        for (long id : allocated) {
+            assertThat(ids).doesNotContain(id);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.study.entity;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 2차 캐시는 커밋된 후에 들어가므로 트랜잭션을 테스트에서 직접 나눠서 확인
+ */
+@SpringBootTest
+class TeamCacheTest {
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    Long teamId;
+    Long memberId;
+
+    @BeforeEach
+    public void before() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team team = new Team("cacheTeam");
+            Member member = new Member("cacheMember", 20, team);
+            entityManager.persist(team);
+            entityManager.persist(member);
+            teamId = team.getId();
+            memberId = member.getId();
+        });
+        statistics().clear();
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.remove(entityManager.find(Member.class, memberId));
+            entityManager.remove(entityManager.find(Team.class, teamId));
+        });
+    }
+
+    @Test
+    public void memberTeamLookupHitsSecondLevelCache() {
+        String teamName = transactionTemplate.execute(status ->
+                entityManager.find(Member.class, memberId).getTeam().getName());
+
+        assertThat(teamName).isEqualTo("cacheTeam");
+//        member 는 DB 에서, team 은 2차 캐시에서
+        assertThat(teamRegion().getHitCount()).isEqualTo(1);
+        assertThat(teamRegion().getMissCount()).isZero();
+        assertThat(statistics().getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void teamUpdateRefreshesCache() {
+        transactionTemplate.executeWithoutResult(status ->
+                entityManager.find(Team.class, teamId).setName("renamedTeam"));
+
+        String teamName = transactionTemplate.execute(status -> entityManager.find(Team.class, teamId).getName());
+        assertThat(teamName).isEqualTo("renamedTeam");
+        assertThat(teamRegion().getHitCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void bulkUpdateEvictsRegion() {
+        transactionTemplate.executeWithoutResult(status ->
+                entityManager.createQuery("update Team t set t.name = :name where t.id = :id")
+                        .setParameter("name", "bulkTeam")
+                        .setParameter("id", teamId)
+                        .executeUpdate());
+
+        String teamName = transactionTemplate.execute(status -> entityManager.find(Team.class, teamId).getName());
+        assertThat(teamName).isEqualTo("bulkTeam");
+        assertThat(teamRegion().getMissCount()).isEqualTo(1);
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private CacheRegionStatistics teamRegion() {
+        return statistics().getDomainDataRegionStatistics(Team.class.getName());
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.study.repository;
+
+import com.example.study.entity.Member;
+import com.example.study.entity.QMember;
+import com.example.study.entity.Team;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class BulkQueryExecutorTest {
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    BulkQueryExecutor bulkQueryExecutor;
+
+    Team teamA;
+    Team teamB;
+    Member member1;
+    Member member2;
+
+    @BeforeEach
+    public void before() {
+        teamA = new Team("bulkExecTeamA");
+        teamB = new Team("bulkExecTeamB");
+        entityManager.persist(teamA);
+        entityManager.persist(teamB);
+        member1 = new Member("bulkExecMember1", 10, teamA);
+        member2 = new Member("bulkExecMember2", 20, teamB);
+        entityManager.persist(member1);
+        entityManager.persist(member2);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    public void flushesBeforeAndDetachesOnlyAffectedType() {
+        Member member = entityManager.find(Member.class, member1.getId());
+        Team loadedWithMembers = entityManager.find(Team.class, teamA.getId());
+        loadedWithMembers.getMembers().size();
+        Team loadedWithoutMembers = entityManager.find(Team.class, teamB.getId());
+
+//        아직 flush 안된 변경도 벌크 연산에 반영되어야 함
+        member.setAge(15);
+
+        long rows = bulkQueryExecutor.update(QMember.member, update -> update
+                .set(QMember.member.age, QMember.member.age.add(1))
+                .where(QMember.member.username.startsWith("bulkExecMember")));
+
+        assertThat(rows).isEqualTo(2);
+        assertThat(entityManager.contains(member)).isFalse();
+//        Member 를 담은 초기화된 컬렉션의 주인은 detach, 관련없는 Team 은 그대로 영속 상태
+        assertThat(entityManager.contains(loadedWithMembers)).isFalse();
+        assertThat(entityManager.contains(loadedWithoutMembers)).isTrue();
+
+        assertThat(entityManager.find(Member.class, member1.getId()).getAge()).isEqualTo(16);
+        assertThat(entityManager.find(Member.class, member2.getId()).getAge()).isEqualTo(21);
+    }
+
+    @Test
+    public void deleteDetachesDeletedEntities() {
+        Member member = entityManager.find(Member.class, member2.getId());
+
+        bulkQueryExecutor.delete(QMember.member, delete -> delete.where(QMember.member.id.eq(member2.getId())));
+
+        assertThat(entityManager.contains(member)).isFalse();
+        assertThat(entityManager.find(Member.class, member2.getId())).isNull();
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.study.repository;
+
+import com.example.study.config.StatementScope;
+import com.example.study.dto.MemberTeamSearchCondition;
+import com.example.study.entity.Member;
+import com.example.study.entity.Team;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 조건만으로 만든 카운트 / 존재 확인 쿼리가 컨텐츠 쿼리 결과 건수와 같은지
+ * (같은 DB 에서 두 쿼리를 비교하므로 다른 테스트 데이터가 있어도 상관없음)
+ */
+@SpringBootTest
+@Transactional
+class MemberCountQueryTest {
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    MemberSearchTemplates memberSearchTemplates;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("countQueryTeamA");
+        Team teamB = new Team("countQueryTeamB");
+        entityManager.persist(teamA);
+        entityManager.persist(teamB);
+        for (int i = 0; i < 6; i++) {
+            entityManager.persist(new Member("countQueryMember" + i % 2, 10 + i, i % 3 == 0 ? teamA : teamB));
+        }
+//        팀 없는 회원도 left join 을 뺀 카운트에 그대로 포함되어야 함
+        entityManager.persist(new Member("countQueryMember0", 12, null));
+        entityManager.persist(new Member("countQueryMember1", 13, null));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    public void countMatchesContentForEveryShape() {
+        for (int shape = 0; shape < 128; shape++) {
+//            부분검색어는 trigram / like 스캔 중 하나만
+            if ((shape & 0b110_0000) == 0b110_0000) {
+                continue;
+            }
+            MemberTeamSearchCondition condition = condition(shape);
+            long expected = memberSearchTemplates.fetch(condition, null).size();
+
+            assertThat(memberSearchTemplates.count(condition)).as("shape %d", shape).isEqualTo(expected);
+//            조건을 여러개 걸면 결과가 없는 조합도 있음
+            if (expected > 0) {
+                assertThat(memberSearchTemplates.exists(condition, expected - 1)).as("shape %d", shape).isTrue();
+            }
+            assertThat(memberSearchTemplates.exists(condition, expected)).as("shape %d", shape).isFalse();
+        }
+    }
+
+    @Test
+    public void countSkipsTeamJoinWithoutTeamFilter() {
+        MemberTeamSearchCondition condition = condition(0b1101);
+
+        StatementScope scope = StatementScope.start();
+        try {
+            memberSearchTemplates.count(condition);
+            memberSearchTemplates.exists(condition, 0);
+        } finally {
+            scope.stop();
+        }
+
+        assertThat(scope.getShapes().keySet()).hasSize(2)
+                .allSatisfy(sql -> assertThat(sql).doesNotContain("join").doesNotContain("team"));
+        assertThat(scope.getShapes().keySet()).anySatisfy(sql -> assertThat(sql).contains("count(member0_.member_id)"));
+    }
+
+    //    username / teamName / ageGoe / ageLoe / usernameStartsWith / usernameContains(3글자 이상, 미만) 순서의 비트
+    private MemberTeamSearchCondition condition(int shape) {
+        MemberTeamSearchCondition condition = new MemberTeamSearchCondition();
+        if ((shape & 1) != 0) {
+            condition.setUsername("countQueryMember0");
+        }
+        if ((shape & 2) != 0) {
+            condition.setTeamName("countQueryTeamB");
+        }
+        condition.setAgeGoe((shape & 4) != 0 ? 11 : null);
+        condition.setAgeLoe((shape & 8) != 0 ? 15 : null);
+        if ((shape & 16) != 0) {
+            condition.setUsernameStartsWith("countQuery");
+        }
+        if ((shape & 32) != 0) {
+            condition.setUsernameContains("ember1");
+        }
+        if ((shape & 64) != 0) {
+            condition.setUsernameContains("r1");
+        }
+        return condition;
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.study.repository;
+
+import com.example.study.dto.MemberTeamSearchCondition;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 대량 데이터를 넣고 검색 조건별로 실제 실행된 SQL 의 실행계획을 확인
+ * 각 조건이 풀스캔(tableScan)이 아닌 인덱스를 타는지 검증
+ */
+@SpringBootTest
+@Transactional
+class MemberIndexPlanTest {
+
+    private static final int MEMBER_COUNT = 50000;
+    private static final int TEAM_COUNT = 200;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    SqlCapture sqlCapture;
+
+    @BeforeEach
+    public void before() {
+//        다른 테스트 데이터와 겹치지 않도록 큰 id 부터 사용
+        entityManager.createNativeQuery("insert into team (id, name) " +
+                        "select x + 1000000, 'planTeam' || x from system_range(1, " + TEAM_COUNT + ")")
+                .executeUpdate();
+        entityManager.createNativeQuery("insert into member (member_id, username, age, team_id) " +
+                        "select x + 1000000, 'planMember' || x, mod(x, 80), mod(x, " + TEAM_COUNT + ") + 1000001 " +
+                        "from system_range(1, " + MEMBER_COUNT + ")")
+                .executeUpdate();
+    }
+
+    @Test
+    public void usernameUsesIndex() {
+        MemberTeamSearchCondition condition = new MemberTeamSearchCondition();
+        condition.setUsername("planMember7");
+
+        assertThat(plansOf(condition)).allSatisfy(plan -> {
+            assertThat(plan).contains("IDX_MEMBER_USERNAME");
+            assertThat(plan).doesNotContain("tableScan");
+        });
+    }
+
+    @Test
+    public void teamNameUsesIndex() {
+        MemberTeamSearchCondition condition = new MemberTeamSearchCondition();
+        condition.setTeamName("planTeam7");
+
+        assertThat(plansOf(condition)).allSatisfy(plan -> {
+            assertThat(plan).contains("IDX_TEAM_NAME");
+            assertThat(plan).doesNotContain("tableScan");
+        });
+    }
+
+    @Test
+    public void ageRangeUsesIndex() {
+        MemberTeamSearchCondition condition = new MemberTeamSearchCondition();
+        condition.setAgeGoe(10);
+        condition.setAgeLoe(11);
+
+        assertThat(plansOf(condition)).allSatisfy(plan -> {
+            assertThat(plan).contains("IDX_MEMBER_AGE");
+            assertThat(plan).doesNotContain("tableScan");
+        });
+    }
+
+    @Test
+    public void teamNameAndAgeUsesCompositeIndex() {
+        MemberTeamSearchCondition condition = new MemberTeamSearchCondition();
+        condition.setTeamName("planTeam7");
+        condition.setAgeGoe(10);
+        condition.setAgeLoe(11);
+
+        assertThat(plansOf(condition)).allSatisfy(plan -> {
+            assertThat(plan).contains("IDX_TEAM_NAME");
+            assertThat(plan).contains("IDX_MEMBER_TEAM_AGE");
+            assertThat(plan).doesNotContain("tableScan");
+        });
+    }
+
+    //    컨텐츠 + 카운트 쿼리를 실행시키고 실행된 select 문마다 explain 결과를 모음
+    private List<String> plansOf(MemberTeamSearchCondition condition) {
+        entityManager.flush();
+        sqlCapture.start();
+        memberRepository.search(condition);
+        memberRepository.searchPageComplex(condition, PageRequest.of(0, 5));
+        List<String> statements = sqlCapture.stop();
+
+        assertThat(statements).isNotEmpty();
+        return statements.stream()
+                .map(sql -> String.valueOf(entityManager.createNativeQuery("explain " + sql).getSingleResult()))
+                .collect(java.util.stream.Collectors.toList());
+    }
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        SqlCapture sqlCapture() {
+            return new SqlCapture();
+        }
+    }
+
+    static class SqlCapture extends SimpleJdbcEventListener {
+
+        private final List<String> statements = new CopyOnWriteArrayList<>();
+        private volatile boolean capturing;
+
+        void start() {
+            statements.clear();
+            capturing = true;
+        }
+
+        List<String> stop() {
+            capturing = false;
+            return statements;
+        }
+
+        @Override
+        public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+            if (capturing && statementInformation.getSql().trim().toLowerCase().startsWith("select")) {
+                statements.add(statementInformation.getSqlWithValues());
+            }
+        }
+    }
+}
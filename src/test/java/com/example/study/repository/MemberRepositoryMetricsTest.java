@@ -0,0 +1,123 @@
+package com.example.study.repository;
+
+import com.example.study.dto.MemberTeamSearchCondition;
+import com.example.study.entity.Member;
+import com.example.study.entity.Team;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MemberRepositoryMetricsTest {
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberJPARepository memberJPARepository;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void before() {
+        Team team = new Team("metricsTeam");
+        entityManager.persist(team);
+        entityManager.persist(new Member("metricsMember1", 10, team));
+        entityManager.persist(new Member("metricsMember2", 20, team));
+        entityManager.persist(new Member("metricsMember3", 30, team));
+    }
+
+    @Test
+    public void searchIsTimedAndTaggedByConditions() {
+        MemberTeamSearchCondition condition = new MemberTeamSearchCondition();
+        condition.setTeamName("metricsTeam");
+        condition.setAgeGoe(15);
+
+        long timed = timerCount("MemberRepository", "search");
+        double calls = callCount("MemberRepository", "search", "teamName+ageGoe");
+        double rows = rowsTotal("MemberRepository", "search", "teamName+ageGoe");
+
+        memberRepository.search(condition);
+
+//        MemberRepositoryImpl 을 거쳐도 한번만 기록
+        assertThat(timerCount("MemberRepository", "search")).isEqualTo(timed + 1);
+        assertThat(callCount("MemberRepository", "search", "teamName+ageGoe")).isEqualTo(calls + 1);
+//        타이머는 조건 조합별로 나누지 않음 (시리즈 수 제한)
+        assertThat(meterRegistry.find("member.repository.calls").tagKeys("conditions").timers()).isEmpty();
+        assertThat(rowsTotal("MemberRepository", "search", "teamName+ageGoe")).isEqualTo(rows + 2);
+    }
+
+    @Test
+    public void jpaRepositoryAndDerivedQueriesAreTimed() {
+        MemberTeamSearchCondition condition = new MemberTeamSearchCondition();
+        condition.setUsername("metricsMember1");
+
+        double builder = callCount("MemberJPARepository", "searchByBuilder", "username");
+        double findByUsername = callCount("MemberRepository", "findByUsername", "username");
+
+        memberJPARepository.searchByBuilder(condition);
+        memberRepository.findByUsername("metricsMember1");
+
+        assertThat(callCount("MemberJPARepository", "searchByBuilder", "username")).isEqualTo(builder + 1);
+        assertThat(callCount("MemberRepository", "findByUsername", "username")).isEqualTo(findByUsername + 1);
+    }
+
+    @Test
+    public void countQuerySkipsAreCounted() {
+        MemberTeamSearchCondition condition = new MemberTeamSearchCondition();
+        condition.setTeamName("metricsTeam");
+
+        double skipped = countQueries("skipped");
+        double executed = countQueries("executed");
+
+//        첫 페이지가 페이지 크기보다 작으면 카운트 생략
+        memberRepository.searchPageComplex(condition, PageRequest.of(0, 10));
+        memberRepository.searchPageComplex(condition, PageRequest.of(0, 2));
+
+        assertThat(countQueries("skipped")).isEqualTo(skipped + 1);
+        assertThat(countQueries("executed")).isEqualTo(executed + 1);
+        assertThat(meterRegistry.get("member.repository.count.skip.ratio").gauge().value()).isBetween(0.0, 1.0);
+    }
+
+    private long timerCount(String repository, String method) {
+        Timer timer = meterRegistry.find("member.repository.calls")
+                .tags("repository", repository, "method", method, "outcome", "success")
+                .timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    private double callCount(String repository, String method, String conditions) {
+        Counter counter = meterRegistry.find("member.repository.calls.conditions")
+                .tags("repository", repository, "method", method, "conditions", conditions, "outcome", "success")
+                .counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private double rowsTotal(String repository, String method, String conditions) {
+        DistributionSummary summary = meterRegistry.find("member.repository.rows")
+                .tags("repository", repository, "method", method, "conditions", conditions)
+                .summary();
+        return summary == null ? 0 : summary.totalAmount();
+    }
+
+    private double countQueries(String result) {
+        Counter counter = meterRegistry.find("member.repository.count.queries").tag("result", result).counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
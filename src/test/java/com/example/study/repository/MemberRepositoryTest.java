@@ -1,9 +1,15 @@
 package com.example.study.repository;
 
+import com.example.study.config.StatementScope;
+import com.example.study.dto.CursorPage;
+import com.example.study.dto.InvalidFieldException;
+import com.example.study.dto.MemberField;
 import com.example.study.dto.MemberTeamDto;
 import com.example.study.dto.MemberTeamSearchCondition;
 import com.example.study.entity.Member;
+import com.example.study.entity.QMember;
 import com.example.study.entity.Team;
+import com.querydsl.jpa.impl.JPAQueryFactory;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -13,9 +19,12 @@ import org.springframework.data.domain.PageRequest;
 import javax.persistence.EntityManager;
 import javax.transaction.Transactional;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SpringBootTest
 @Transactional
@@ -27,6 +36,12 @@ class MemberRepositoryTest {
     @Autowired
     MemberRepository memberRepository;
 
+    @Autowired
+    MemberCountCache memberCountCache;
+
+    @Autowired
+    MemberSearchTemplates memberSearchTemplates;
+
     @Test
     public void basicTest() {
         Member member = new Member("member1", 30);
@@ -111,4 +126,138 @@ class MemberRepositoryTest {
         assertThat(result.getSize()).isEqualTo(3);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void searchByCursorTest() {
+        Team teamA = new Team("cursorTeam");
+        entityManager.persist(teamA);
+        for (int i = 0; i < 5; i++) {
+            entityManager.persist(new Member("member" + i, 20 + i, teamA));
+        }
+
+        MemberTeamSearchCondition condition = new MemberTeamSearchCondition();
+        condition.setTeamName("cursorTeam");
+
+        CursorPage<MemberTeamDto> first = memberRepository.searchByCursor(condition, null, 2);
+        assertThat(first.getContent()).extracting("username").containsExactly("member0", "member1");
+        assertThat(first.isHasNext()).isTrue();
+
+        CursorPage<MemberTeamDto> second = memberRepository.searchByCursor(condition, CursorPage.decode(first.getNextCursor()), 2);
+        assertThat(second.getContent()).extracting("username").containsExactly("member2", "member3");
+
+        CursorPage<MemberTeamDto> last = memberRepository.searchByCursor(condition, CursorPage.decode(second.getNextCursor()), 2);
+        assertThat(last.getContent()).extracting("username").containsExactly("member4");
+        assertThat(last.isHasNext()).isFalse();
+        assertThat(last.getNextCursor()).isNull();
+    }
+
+    @Test
+    public void searchPageComplexCountCacheTest() {
+        Team teamA = new Team("countTeam");
+        entityManager.persist(teamA);
+        for (int i = 0; i < 5; i++) {
+            entityManager.persist(new Member("member" + i, 20 + i, teamA));
+        }
+
+        MemberTeamSearchCondition condition = new MemberTeamSearchCondition();
+        condition.setTeamName("countTeam");
+        PageRequest pageRequest = PageRequest.of(0, 2);
+
+        Page<MemberTeamDto> first = memberRepository.searchPageComplex(condition, pageRequest);
+        long hitCount = memberCountCache.stats().hitCount();
+
+//        같은 조건(공백 username 은 조건 없음과 같음) -> 캐시 히트
+        condition.setUsername(" ");
+        Page<MemberTeamDto> second = memberRepository.searchPageComplex(condition, pageRequest);
+        assertThat(first.getTotalElements()).isEqualTo(5);
+        assertThat(second.getTotalElements()).isEqualTo(5);
+        assertThat(memberCountCache.stats().hitCount()).isEqualTo(hitCount + 1);
+
+//        저장이 일어나면 무효화
+        entityManager.persist(new Member("member5", 30, teamA));
+        entityManager.flush();
+        assertThat(memberCountCache.size()).isZero();
+        assertThat(memberRepository.searchPageComplex(condition, pageRequest).getTotalElements()).isEqualTo(6);
+
+//        벌크 연산도 무효화
+        new JPAQueryFactory(entityManager)
+                .delete(QMember.member)
+                .where(QMember.member.username.eq("member5"))
+                .execute();
+        assertThat(memberCountCache.size()).isZero();
+        assertThat(memberRepository.searchPageComplex(condition, pageRequest).getTotalElements()).isEqualTo(5);
+    }
+
+    @Test
+    public void searchTemplateReuseTest() {
+        Team teamA = new Team("templateTeamA");
+        Team teamB = new Team("templateTeamB");
+        entityManager.persist(teamA);
+        entityManager.persist(teamB);
+        entityManager.persist(new Member("member1", 21, teamA));
+        entityManager.persist(new Member("member2", 25, teamA));
+        entityManager.persist(new Member("member3", 24, teamB));
+
+        MemberTeamSearchCondition first = new MemberTeamSearchCondition();
+        first.setTeamName("templateTeamA");
+        first.setAgeGoe(22);
+        assertThat(memberRepository.search(first)).extracting("username").containsExactly("member2");
+
+//        같은 조건 조합(값만 다름) -> 템플릿 재사용
+        long reuses = memberSearchTemplates.getReuseCount();
+        long builds = memberSearchTemplates.getBuildCount();
+        MemberTeamSearchCondition second = new MemberTeamSearchCondition();
+        second.setTeamName("templateTeamB");
+        second.setAgeGoe(20);
+        assertThat(memberRepository.search(second)).extracting("username").containsExactly("member3");
+        assertThat(memberSearchTemplates.getReuseCount()).isEqualTo(reuses + 1);
+        assertThat(memberSearchTemplates.getBuildCount()).isEqualTo(builds);
+
+        MemberTeamSearchCondition teamOnly = new MemberTeamSearchCondition();
+        teamOnly.setTeamName("templateTeamA");
+        Page<MemberTeamDto> page = memberRepository.searchPageSimple(teamOnly, PageRequest.of(1, 1));
+        assertThat(page.getContent()).extracting("username").containsExactly("member2");
+        assertThat(page.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    public void searchFieldsTest() {
+        Team team = new Team("fieldsTeam");
+        entityManager.persist(team);
+        entityManager.persist(new Member("fieldsMember1", 31, team));
+        entityManager.persist(new Member("fieldsMember2", 32, null));
+        entityManager.flush();
+
+        MemberTeamSearchCondition condition = new MemberTeamSearchCondition();
+        condition.setAgeGoe(31);
+        condition.setAgeLoe(32);
+
+//        팀 필드가 없으면 team 조인 없이 요청한 컬럼만 조회
+        StatementScope scope = StatementScope.start();
+        List<Map<String, Object>> narrow;
+        try {
+            narrow = memberRepository.searchFields(condition, MemberField.parse("username,age,teamId"), PageRequest.of(0, 10));
+        } finally {
+            scope.stop();
+        }
+        assertThat(narrow).extracting("username").containsExactly("fieldsMember1", "fieldsMember2");
+        assertThat(narrow.get(0)).containsOnlyKeys("username", "age", "teamId")
+                .containsEntry("age", 31)
+                .containsEntry("teamId", team.getId());
+        assertThat(narrow.get(1)).containsEntry("teamId", null);
+        assertThat(scope.getShapes().keySet()).singleElement().asString()
+                .doesNotContain("join")
+                .doesNotContain("team team");
+
+//        팀명 필드를 요청하면 left join, 팀명 조건이면 inner join
+        List<Map<String, Object>> withTeam = memberRepository.searchFields(condition, MemberField.parse("username,teamName"), PageRequest.of(0, 10));
+        assertThat(withTeam).extracting("teamName").containsExactly("fieldsTeam", null);
+
+        condition.setTeamName("fieldsTeam");
+        assertThat(memberRepository.searchFields(condition, MemberField.parse("username"), PageRequest.of(0, 10)))
+                .containsExactly(Collections.singletonMap("username", "fieldsMember1"));
+
+        assertThatThrownBy(() -> MemberField.parse("username,password"))
+                .isInstanceOf(InvalidFieldException.class);
+    }
+
+}
@@ -0,0 +1,130 @@
+package com.example.study.repository;
+
+import com.example.study.config.StatementCountExtension;
+import com.example.study.config.StatementScope;
+import com.example.study.entity.Member;
+import com.example.study.entity.Team;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.transaction.Transactional;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 지연로딩 N+1 을 쿼리 수로 확인 (배치 페치 적용후 쿼리 수가 건수와 무관한지)
+ */
+@SpringBootTest
+@Transactional
+@ExtendWith(StatementCountExtension.class)
+class MemberStatementCountTest {
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    public void before() {
+        for (int i = 0; i < 3; i++) {
+            Team team = new Team("nPlusOneTeam" + i);
+            entityManager.persist(team);
+            entityManager.persist(new Member("nPlusOneMember" + i, 10 + i, team));
+        }
+        entityManager.flush();
+        entityManager.clear();
+//        Team 은 2차 캐시에서 나올수 있으므로 비움
+        entityManagerFactory.getCache().evict(Team.class);
+    }
+
+    @Test
+    public void lazyTeamAccessIsBatched(StatementScope statements) {
+        statements.reset();
+
+        List<Member> members = entityManager.createQuery(
+                        "select m from Member m where m.username like 'nPlusOneMember%'", Member.class)
+                .getResultList();
+        members.forEach(member -> member.getTeam().getName());
+
+//        Team @BatchSize : 팀 프록시 3개를 IN 쿼리 하나로 초기화
+        assertThat(statements.getCount()).isEqualTo(1 + 1);
+        assertThat(statements.getMostRepeated().get().getValue()).isEqualTo(1);
+    }
+
+    @Test
+    public void teamMembersAccessIsBatched(StatementScope statements) {
+        statements.reset();
+
+        List<Team> teams = entityManager.createQuery(
+                        "select t from Team t where t.name like 'nPlusOneTeam%'", Team.class)
+                .getResultList();
+        teams.forEach(team -> team.getMembers().size());
+
+        assertThat(teams).hasSize(3);
+        assertThat(statements.getCount()).isEqualTo(1 + 1);
+    }
+
+    @Test
+    public void fetchJoinIsOneStatement(StatementScope statements) {
+        statements.reset();
+
+        List<Member> members = entityManager.createQuery(
+                        "select m from Member m join fetch m.team where m.username like 'nPlusOneMember%'", Member.class)
+                .getResultList();
+        members.forEach(member -> member.getTeam().getName());
+
+        assertThat(statements.getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void changeTeamDoesNotLoadMembers(StatementScope statements) {
+        Team newTeam = entityManager.createQuery("select t from Team t where t.name = 'nPlusOneTeam1'", Team.class)
+                .getSingleResult();
+        Member member = entityManager.createQuery(
+                        "select m from Member m join fetch m.team where m.username = 'nPlusOneMember0'", Member.class)
+                .getSingleResult();
+        Team oldTeam = member.getTeam();
+        statements.reset();
+
+        member.changeTeam(newTeam);
+        entityManager.flush();
+
+//        member update + team_stats 두 팀 갱신, 양쪽 팀의 members 는 읽지 않음
+        assertThat(statements.getCount()).isEqualTo(1 + 2);
+        assertThat(statements.getShapes().keySet()).noneMatch(sql -> sql.startsWith("select"));
+        assertThat(Hibernate.isInitialized(newTeam.getMembers())).isFalse();
+        assertThat(Hibernate.isInitialized(oldTeam.getMembers())).isFalse();
+
+//        나중에 초기화되면 DB 에서 읽은 그대로
+        entityManager.clear();
+        Team reloaded = entityManager.find(Team.class, newTeam.getId());
+        assertThat(reloaded.getMembers()).extracting("username").contains("nPlusOneMember0", "nPlusOneMember1");
+    }
+
+    @Test
+    public void changeTeamKeepsLoadedMembersInSync(StatementScope statements) {
+        Team newTeam = entityManager.createQuery("select t from Team t where t.name = 'nPlusOneTeam1'", Team.class)
+                .getSingleResult();
+        Team oldTeam = entityManager.createQuery(
+                        "select t from Team t join fetch t.members where t.name = 'nPlusOneTeam0'", Team.class)
+                .getSingleResult();
+        Member member = oldTeam.getMembers().get(0);
+        statements.reset();
+
+        member.changeTeam(newTeam);
+
+//        이미 읽은 컬렉션은 메모리에서 바로 맞추고, 안읽은 컬렉션은 add 만 큐에 쌓아둠
+        assertThat(statements.getCount()).isZero();
+        assertThat(oldTeam.getMembers()).doesNotContain(member);
+        assertThat(Hibernate.isInitialized(newTeam.getMembers())).isFalse();
+        assertThat(newTeam.getMembers()).contains(member);
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.study.repository;
+
+import com.example.study.dto.MemberTeamDto;
+import com.example.study.dto.MemberTeamSearchCondition;
+import com.example.study.entity.Member;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MemberUsernameSearchTest {
+
+    //    다른 테스트 데이터와 섞이지 않도록 나이로 구분
+    private static final int AGE = 901;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberUsernameIndex memberUsernameIndex;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    Member bob;
+
+    @BeforeEach
+    public void before() {
+        entityManager.persist(new Member("Alice", AGE));
+        entityManager.persist(new Member("alicia", AGE));
+        entityManager.persist(new Member("malik", AGE));
+        entityManager.persist(new Member("100%_real", AGE));
+        bob = new Member("bob", AGE);
+        entityManager.persist(bob);
+        entityManager.flush();
+    }
+
+    @Test
+    public void containsIsCaseInsensitive() {
+        assertThat(usernames(contains("LIC"))).containsExactlyInAnyOrder("Alice", "alicia");
+        assertThat(usernames(contains("ali"))).containsExactlyInAnyOrder("Alice", "alicia", "malik");
+//        3글자 미만은 like 스캔
+        assertThat(usernames(contains("li"))).containsExactlyInAnyOrder("Alice", "alicia", "malik");
+//        gram 은 다 있지만 순서가 다르면 like 에서 걸러짐
+        assertThat(usernames(contains("icali"))).isEmpty();
+    }
+
+    @Test
+    public void startsWithUsesExactCase() {
+        assertThat(usernames(startsWith("ali"))).containsExactly("alicia");
+        assertThat(usernames(startsWith("Ali"))).containsExactly("Alice");
+    }
+
+    @Test
+    public void wildcardsAreEscaped() {
+        assertThat(usernames(contains("0%_"))).containsExactly("100%_real");
+        assertThat(usernames(contains("%"))).containsExactly("100%_real");
+        assertThat(usernames(startsWith("100%"))).containsExactly("100%_real");
+        assertThat(usernames(startsWith("1_0"))).isEmpty();
+    }
+
+    @Test
+    public void indexFollowsUpdateAndDelete() {
+        bob.setUsername("bobalice");
+        entityManager.flush();
+        assertThat(usernames(contains("lic"))).containsExactlyInAnyOrder("Alice", "alicia", "bobalice");
+
+        entityManager.remove(bob);
+        entityManager.flush();
+        assertThat(jdbcTemplate.queryForObject(
+                "select count(*) from member_username_gram where member_id = ?", Long.class, bob.getId())).isZero();
+    }
+
+    @Test
+    public void cursorSearchAndReindex() {
+        jdbcTemplate.update("delete from member_username_gram");
+        assertThat(memberRepository.searchByCursor(contains("lic"), null, 10).getContent()).isEmpty();
+
+        memberUsernameIndex.reindex();
+
+        assertThat(memberRepository.searchByCursor(contains("lic"), null, 10).getContent())
+                .extracting("username").containsExactlyInAnyOrder("Alice", "alicia");
+        assertThat(memberRepository.searchByCursor(contains("li"), null, 10).getContent()).hasSize(3);
+    }
+
+    @Test
+    public void reindexReplacesGramsInPlace() {
+        jdbcTemplate.update("insert into member_username_gram (gram, member_id) values ('zzz', ?)", bob.getId());
+        jdbcTemplate.update("insert into member_username_gram (gram, member_id) values ('zzz', ?)", Long.MAX_VALUE);
+
+//        기존 gram 을 지우지 않고 다시 만들어도 PK 가 겹치지 않고, 오래된 gram 은 범위 삭제로 빠짐
+        memberUsernameIndex.reindex();
+
+        assertThat(jdbcTemplate.queryForList(
+                "select gram from member_username_gram where member_id = ?", String.class, bob.getId()))
+                .containsExactly("bob");
+        assertThat(jdbcTemplate.queryForObject(
+                "select count(*) from member_username_gram where member_id = ?", Long.class, Long.MAX_VALUE)).isZero();
+        assertThat(usernames(contains("lic"))).containsExactlyInAnyOrder("Alice", "alicia");
+    }
+
+    @Test
+    public void scanWhenIndexDisabled() {
+        jdbcTemplate.update("delete from member_username_gram");
+        MemberSearchTemplates scanOnly = new MemberSearchTemplates(entityManager, false);
+
+        assertThat(scanOnly.fetch(contains("lic"), null)).extracting("username")
+                .containsExactlyInAnyOrder("Alice", "alicia");
+    }
+
+    @Test
+    public void grams() {
+        assertThat(MemberUsernameIndex.grams("Alice")).containsExactly("ali", "lic", "ice");
+        assertThat(MemberUsernameIndex.grams("aaaa")).containsExactly("aaa");
+        assertThat(MemberUsernameIndex.grams("ab")).isEmpty();
+        assertThat(MemberUsernameIndex.grams("김철수님")).containsExactly("김철수", "철수님");
+    }
+
+    private List<String> usernames(MemberTeamSearchCondition condition) {
+        List<MemberTeamDto> results = memberRepository.search(condition);
+        return results.stream().map(MemberTeamDto::getUsername).collect(Collectors.toList());
+    }
+
+    private MemberTeamSearchCondition contains(String term) {
+        MemberTeamSearchCondition condition = new MemberTeamSearchCondition();
+        condition.setUsernameContains(term);
+        condition.setAgeGoe(AGE);
+        condition.setAgeLoe(AGE);
+        return condition;
+    }
+
+    private MemberTeamSearchCondition startsWith(String prefix) {
+        MemberTeamSearchCondition condition = new MemberTeamSearchCondition();
+        condition.setUsernameStartsWith(prefix);
+        condition.setAgeGoe(AGE);
+        condition.setAgeLoe(AGE);
+        return condition;
+    }
+}
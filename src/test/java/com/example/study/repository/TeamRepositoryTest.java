@@ -0,0 +1,95 @@
+package com.example.study.repository;
+
+import com.example.study.config.StatementCountExtension;
+import com.example.study.config.StatementScope;
+import com.example.study.entity.Member;
+import com.example.study.entity.Team;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+@ExtendWith(StatementCountExtension.class)
+class TeamRepositoryTest {
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @BeforeEach
+    public void before() {
+        for (int i = 0; i < 4; i++) {
+            Team team = new Team("pageTeam" + i);
+            entityManager.persist(team);
+            for (int j = 0; j < 3; j++) {
+                entityManager.persist(new Member("pageMember" + i + "_" + j, 10 + j, team));
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    public void pagesTeamsWithMembers(StatementScope statements) {
+        List<Long> pageTeamIds = entityManager.createQuery(
+                        "select t.id from Team t where t.name like 'pageTeam%' order by t.id", Long.class)
+                .getResultList();
+        long before = entityManager.createQuery("select count(t) from Team t where t.id < :id", Long.class)
+                .setParameter("id", pageTeamIds.get(0))
+                .getSingleResult();
+        entityManager.clear();
+        statements.reset();
+
+//        pageTeam1, pageTeam2 가 있는 페이지
+        int size = 2;
+        Page<Team> page = teamRepository.findPageWithMembers(PageRequest.of((int) (before + 1) / size, size));
+        int pageStatements = statements.getCount();
+        List<Team> teams = page.getContent();
+        teams.forEach(team -> team.getMembers().forEach(Member::getUsername));
+
+//        팀 id 페이징 + 팀/members 조회 + 카운트, members 순회는 추가 쿼리 없음
+        assertThat(pageStatements).isLessThanOrEqualTo(3);
+        assertThat(statements.getCount()).isEqualTo(pageStatements);
+        assertThat(teams).hasSize(size);
+        assertThat(teams).allMatch(team -> Hibernate.isInitialized(team.getMembers()));
+        assertThat(teams.stream().map(Team::getId).collect(Collectors.toList())).isSorted();
+        assertThat(page.getTotalElements()).isGreaterThanOrEqualTo(before + 4);
+    }
+
+    @Test
+    public void membersAreNotDuplicated() {
+        Page<Team> page = teamRepository.findPageWithMembers(PageRequest.of(0, 1000));
+
+        Team team = page.getContent().stream()
+                .filter(t -> t.getName().equals("pageTeam0"))
+                .findFirst().get();
+        assertThat(team.getMembers()).extracting("username")
+                .containsExactlyInAnyOrder("pageMember0_0", "pageMember0_1", "pageMember0_2");
+        assertThat(page.getContent()).doesNotHaveDuplicates();
+    }
+
+    @Test
+    public void pageBeyondLastKeepsTotal() {
+        long total = teamRepository.count();
+
+        Page<Team> page = teamRepository.findPageWithMembers(PageRequest.of(1000, 10));
+
+        assertThat(page.getContent()).isEmpty();
+        assertThat(page.getTotalElements()).isEqualTo(total);
+    }
+}
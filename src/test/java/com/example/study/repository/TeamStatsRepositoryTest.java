@@ -0,0 +1,151 @@
+package com.example.study.repository;
+
+import com.example.study.entity.Member;
+import com.example.study.entity.QMember;
+import com.example.study.entity.Team;
+import com.example.study.entity.TeamStats;
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class TeamStatsRepositoryTest {
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    TeamStatsRepository teamStatsRepository;
+
+    @Autowired
+    TeamStatsWriter teamStatsWriter;
+
+    JPAQueryFactory queryFactory;
+
+    Team teamA;
+    Team teamB;
+
+    @BeforeEach
+    public void before() {
+        queryFactory = new JPAQueryFactory(entityManager);
+        teamA = new Team("statsTeamA");
+        teamB = new Team("statsTeamB");
+        entityManager.persist(teamA);
+        entityManager.persist(teamB);
+        entityManager.persist(new Member("statsMember1", 10, teamA));
+        entityManager.persist(new Member("statsMember2", 20, teamA));
+        entityManager.persist(new Member("statsMember3", 30, teamA));
+        entityManager.persist(new Member("statsMember4", 40, teamB));
+        entityManager.flush();
+    }
+
+    @Test
+    public void persistIsCounted() {
+        assertMatchesMembers(teamA, 3, 60, 10, 30);
+        assertMatchesMembers(teamB, 1, 40, 40, 40);
+    }
+
+    @Test
+    public void changeTeamMovesStats() {
+//        최소값 회원이 빠지면 남은 회원에서 다시 구함
+        member("statsMember1").changeTeam(teamB);
+        entityManager.flush();
+
+        assertMatchesMembers(teamA, 2, 50, 20, 30);
+        assertMatchesMembers(teamB, 2, 50, 10, 40);
+    }
+
+    @Test
+    public void ageChangeAndDelete() {
+        member("statsMember2").setAge(35);
+        entityManager.remove(member("statsMember4"));
+        entityManager.flush();
+
+        assertMatchesMembers(teamA, 3, 75, 10, 35);
+        assertMatchesMembers(teamB, 0, 0, null, null);
+    }
+
+    @Test
+    public void deletedTeamHasNoStats() {
+        Team empty = new Team("statsTeamEmpty");
+        entityManager.persist(empty);
+        entityManager.flush();
+        assertThat(teamStatsRepository.findById(empty.getId())).isPresent();
+
+        entityManager.remove(empty);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(teamStatsRepository.findById(empty.getId())).isEmpty();
+    }
+
+    @Test
+    public void rebuildMatchesIncremental() {
+        teamStatsWriter.rebuild();
+
+        assertMatchesMembers(teamA, 3, 60, 10, 30);
+        assertMatchesMembers(teamB, 1, 40, 40, 40);
+    }
+
+    @Test
+    public void refreshRecomputesOnlyGivenTeams() {
+//        엔티티 이벤트 없이 바뀐 상태
+        entityManager.createNativeQuery("update team_stats set member_count = 99 where team_id in (?, ?)")
+                .setParameter(1, teamA.getId())
+                .setParameter(2, teamB.getId())
+                .executeUpdate();
+
+        teamStatsWriter.refresh(Collections.singletonList(teamA.getId()));
+
+        assertMatchesMembers(teamA, 3, 60, 10, 30);
+        assertThat(teamStatsRepository.findById(teamB.getId()).get().getMemberCount()).isEqualTo(99);
+    }
+
+    @Test
+    public void rebuildRecreatesMissingRows() {
+        entityManager.createNativeQuery("delete from team_stats where team_id = ?")
+                .setParameter(1, teamA.getId())
+                .executeUpdate();
+
+        teamStatsWriter.rebuild();
+
+        assertMatchesMembers(teamA, 3, 60, 10, 30);
+    }
+
+    private Member member(String username) {
+        return queryFactory.selectFrom(QMember.member)
+                .where(QMember.member.username.eq(username))
+                .fetchOne();
+    }
+
+    //    team_stats 가 member groupBy 결과와 같아야 함
+    private void assertMatchesMembers(Team team, long count, long sum, Integer min, Integer max) {
+        entityManager.flush();
+        entityManager.clear();
+        TeamStats stats = teamStatsRepository.findById(team.getId()).get();
+        assertThat(stats.getMemberCount()).isEqualTo(count);
+        assertThat(stats.getAgeSum()).isEqualTo(sum);
+        assertThat(stats.getMinAge()).isEqualTo(min);
+        assertThat(stats.getMaxAge()).isEqualTo(max);
+
+        QMember member = QMember.member;
+        Tuple expected = queryFactory
+                .select(member.count(), member.age.sum(), member.age.min(), member.age.max())
+                .from(member)
+                .where(member.team.id.eq(team.getId()))
+                .fetchOne();
+        assertThat(stats.getMemberCount()).isEqualTo(expected.get(member.count()));
+        assertThat(stats.getMinAge()).isEqualTo(expected.get(member.age.min()));
+        assertThat(stats.getMaxAge()).isEqualTo(expected.get(member.age.max()));
+    }
+}
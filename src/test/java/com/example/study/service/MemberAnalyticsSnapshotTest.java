@@ -0,0 +1,214 @@
+package com.example.study.service;
+
+import com.example.study.dto.AgeStatsDto;
+import com.example.study.entity.Member;
+import com.example.study.entity.Team;
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.example.study.entity.QMember.member;
+import static com.example.study.entity.QTeam.team;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 스냅샷 집계가 DB 집계(QuerydslBasicTest.aggregation / group 과 같은 쿼리)와 같은지
+ * 커밋 후 이벤트로 반영되므로 데이터는 커밋해두고 직접 정리
+ */
+@SpringBootTest
+class MemberAnalyticsSnapshotTest {
+
+    @Autowired
+    MemberAnalyticsSnapshot memberAnalyticsSnapshot;
+
+    @Autowired
+    JPAQueryFactory jpaQueryFactory;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    Long teamAId;
+    Long teamBId;
+
+    @BeforeEach
+    public void before() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = new Team("snapshotTeamA");
+            Team teamB = new Team("snapshotTeamB");
+            entityManager.persist(teamA);
+            entityManager.persist(teamB);
+            for (int i = 0; i < 10; i++) {
+                entityManager.persist(new Member("snapshotMember" + i, 20 + i * 3, i % 3 == 0 ? teamA : teamB));
+            }
+            entityManager.persist(new Member("snapshotNoTeam", 99, null));
+            teamAId = teamA.getId();
+            teamBId = teamB.getId();
+        });
+//        다른 테스트가 JDBC 로 지운 데이터(이벤트 없음)가 남아 있을수 있으므로 한번 맞춰두고 시작
+        memberAnalyticsSnapshot.reload();
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        jdbcTemplate.update("delete from member where team_id in (?, ?) or username like 'snapshot%'", teamAId, teamBId);
+        jdbcTemplate.update("delete from team where id in (?, ?)", teamAId, teamBId);
+    }
+
+    @Test
+    public void matchesDatabaseAggregates() {
+        assertMatchesDatabase(memberAnalyticsSnapshot);
+    }
+
+    @Test
+    public void committedChangesAreAppliedWithoutReload() {
+        long reloads = memberAnalyticsSnapshot.getReloadCount();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = entityManager.find(Team.class, teamAId);
+            teamA.setName("snapshotTeamRenamed");
+            entityManager.persist(new Member("snapshotAdded", 61, teamA));
+            Member moved = jpaQueryFactory.selectFrom(member).where(member.username.eq("snapshotMember1")).fetchOne();
+            moved.setAge(77);
+            moved.changeTeam(teamA);
+            entityManager.remove(jpaQueryFactory.selectFrom(member).where(member.username.eq("snapshotMember2")).fetchOne());
+        });
+//        롤백된 변경은 반영되지 않음
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.persist(new Member("snapshotRolledBack", 1, null));
+            entityManager.flush();
+            status.setRollbackOnly();
+        });
+
+        assertMatchesDatabase(memberAnalyticsSnapshot);
+        assertThat(memberAnalyticsSnapshot.getReloadCount()).isEqualTo(reloads);
+    }
+
+    @Test
+    public void parallelReductionMatchesSerial() {
+        MemberAnalyticsSnapshot parallel = new MemberAnalyticsSnapshot(jdbcTemplate, Duration.ofHours(1), Duration.ZERO, 1);
+
+        assertThat(parallel.ageStats()).isEqualTo(memberAnalyticsSnapshot.ageStats());
+        assertThat(parallel.ageStatsByTeamName()).isEqualTo(memberAnalyticsSnapshot.ageStatsByTeamName());
+        assertMatchesDatabase(parallel);
+    }
+
+    @Test
+    public void changesDuringLoadAreKept() {
+        MemberAnalyticsSnapshot[] holder = new MemberAnalyticsSnapshot[1];
+//        회원을 다 읽은 직전에 커밋된 변경 (읽은 결과에는 없음)
+        JdbcTemplate racing = new JdbcTemplate(jdbcTemplate.getDataSource()) {
+            @Override
+            public void query(String sql, RowCallbackHandler rch) {
+                super.query(sql, rch);
+                if (sql.contains("from member")) {
+                    holder[0].memberChanged(Long.MAX_VALUE, 1234, null);
+                }
+            }
+        };
+        holder[0] = new MemberAnalyticsSnapshot(racing, Duration.ofHours(1), Duration.ZERO, Integer.MAX_VALUE);
+
+        AgeStatsDto stats = holder[0].ageStats();
+
+        assertThat(stats.getCount()).isEqualTo(memberAnalyticsSnapshot.ageStats().getCount() + 1);
+        assertThat(stats.getMax()).isEqualTo(1234);
+    }
+
+    @Test
+    public void manyAddsAndDeletesKeepRowsConsistent() {
+        MemberAnalyticsSnapshot snapshot = new MemberAnalyticsSnapshot(jdbcTemplate, Duration.ofHours(1), Duration.ZERO, Integer.MAX_VALUE);
+        long count = snapshot.ageStats().getCount();
+        long sum = snapshot.ageStats().getSum();
+
+        long base = 1_000_000_000L;
+        for (long id = base; id < base + 5000; id++) {
+            snapshot.memberChanged(id, 1, null);
+        }
+        snapshot.ageStats();
+//        짝수는 삭제, 홀수는 나이 변경 (삭제로 행이 옮겨져도 id -> 행이 맞아야 함)
+        for (long id = base; id < base + 5000; id++) {
+            if (id % 2 == 0) {
+                snapshot.memberDeleted(id);
+            } else {
+                snapshot.memberChanged(id, 3, null);
+            }
+        }
+
+        AgeStatsDto stats = snapshot.ageStats();
+        assertThat(stats.getCount()).isEqualTo(count + 2500);
+        assertThat(stats.getSum()).isEqualTo(sum + 2500 * 3);
+    }
+
+    @Test
+    public void lateChangeDoesNotReviveDeletedMember() {
+        MemberAnalyticsSnapshot snapshot = new MemberAnalyticsSnapshot(jdbcTemplate, Duration.ofHours(1), Duration.ZERO, Integer.MAX_VALUE);
+        long count = snapshot.ageStats().getCount();
+        long id = 2_000_000_000L;
+        snapshot.memberChanged(id, 1, null);
+        snapshot.ageStats();
+
+//        다른 스레드에서 커밋된 이전 변경이 삭제 이벤트보다 늦게 도착
+        snapshot.memberDeleted(id);
+        snapshot.ageStats();
+        snapshot.memberChanged(id, 1, null);
+
+        assertThat(snapshot.ageStats().getCount()).isEqualTo(count);
+    }
+
+    @Test
+    public void tooManyPendingChangesReloadOnNextRead() {
+        MemberAnalyticsSnapshot snapshot = new MemberAnalyticsSnapshot(jdbcTemplate, Duration.ofHours(1), Duration.ZERO, Integer.MAX_VALUE);
+        long count = snapshot.ageStats().getCount();
+        long reloads = snapshot.getReloadCount();
+
+        for (long id = 3_000_000_000L; id < 3_000_000_000L + 100_001; id++) {
+            snapshot.memberChanged(id, 1, null);
+        }
+
+//        넘친 변경은 버리고 DB 에서 다시 읽음 (DB 에는 없는 회원들)
+        assertThat(snapshot.ageStats().getCount()).isEqualTo(count);
+        assertThat(snapshot.getReloadCount()).isEqualTo(reloads + 1);
+    }
+
+    private void assertMatchesDatabase(MemberAnalyticsSnapshot snapshot) {
+        Tuple total = transactionTemplate.execute(status -> jpaQueryFactory
+                .select(member.count(), member.age.sum(), member.age.max(), member.age.min())
+                .from(member)
+                .fetchOne());
+        AgeStatsDto stats = snapshot.ageStats();
+        assertThat(stats.getCount()).isEqualTo(total.get(member.count()));
+        assertThat(stats.getSum()).isEqualTo(total.get(member.age.sum()).longValue());
+        assertThat(stats.getMax()).isEqualTo(total.get(member.age.max()));
+        assertThat(stats.getMin()).isEqualTo(total.get(member.age.min()));
+
+        List<Tuple> groups = transactionTemplate.execute(status -> jpaQueryFactory
+                .select(team.name, member.count(), member.age.sum(), member.age.max(), member.age.min())
+                .from(member)
+                .join(member.team, team)
+                .groupBy(team.name)
+                .orderBy(team.name.asc())
+                .fetch());
+        assertThat(snapshot.ageStatsByTeamName()).extracting("teamName", "count", "sum", "max", "min")
+                .containsExactlyElementsOf(groups.stream()
+                        .map(group -> org.assertj.core.groups.Tuple.tuple(group.get(team.name), group.get(member.count()),
+                                group.get(member.age.sum()).longValue(), group.get(member.age.max()), group.get(member.age.min())))
+                        .collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.study.service;
+
+import com.example.study.dto.MemberTeamSearchCondition;
+import com.example.study.entity.BulkJobCheckpoint;
+import com.example.study.entity.Member;
+import com.example.study.entity.QMember;
+import com.example.study.entity.Team;
+import com.example.study.repository.MemberRepository;
+import com.example.study.repository.MemberUsernameIndex;
+import com.example.study.repository.TeamStatsWriter;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * 청크마다 커밋되므로 데이터는 커밋해두고 직접 정리
+ */
+@SpringBootTest
+class MemberBulkServiceTest {
+
+    @Autowired
+    JPAQueryFactory jpaQueryFactory;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberAnalyticsSnapshot memberAnalyticsSnapshot;
+
+    @Autowired
+    TeamStatsWriter teamStatsWriter;
+
+    @Autowired
+    MemberUsernameIndex memberUsernameIndex;
+
+    MemberBulkService memberBulkService;
+
+    Long teamId;
+    Long targetTeamId;
+
+    @BeforeEach
+    public void before() {
+        memberBulkService = new MemberBulkService(jpaQueryFactory, entityManager, memberRepository,
+                memberAnalyticsSnapshot, teamStatsWriter, memberUsernameIndex, transactionManager, 10, Duration.ZERO);
+        transactionTemplate.executeWithoutResult(status -> {
+            Team team = new Team("bulkTeam");
+            Team target = new Team("bulkTargetTeam");
+            entityManager.persist(team);
+            entityManager.persist(target);
+            for (int i = 0; i < 25; i++) {
+                entityManager.persist(new Member("bulkMember" + i, i, team));
+            }
+            entityManager.persist(new Member("bulkTargetMember", 50, target));
+            teamId = team.getId();
+            targetTeamId = target.getId();
+        });
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        jdbcTemplate.update("delete from member_username_gram where member_id in"
+                + " (select member_id from member where team_id in (?, ?))", teamId, targetTeamId);
+        jdbcTemplate.update("delete from member where team_id in (?, ?)", teamId, targetTeamId);
+        jdbcTemplate.update("delete from team_stats where team_id in (?, ?)", teamId, targetTeamId);
+        jdbcTemplate.update("delete from team where id in (?, ?)", teamId, targetTeamId);
+        jdbcTemplate.update("delete from bulk_job_checkpoint where job_name like 'bulkTest%'");
+    }
+
+    @Test
+    public void updateInChunks() {
+        MemberBulkService.BulkResult result = memberBulkService.update("bulkTest-update",
+                QMember.member.team.id.eq(teamId).and(QMember.member.age.lt(20)),
+                clause -> clause.set(QMember.member.username, "비회원"));
+
+        assertThat(result.getAffectedRows()).isEqualTo(20);
+        assertThat(result.getChunks()).isGreaterThanOrEqualTo(3);
+        assertThat(count("비회원")).isEqualTo(20);
+//        바뀐 username 으로 gram 이 다시 만들어짐
+        assertThat(jdbcTemplate.queryForObject("select count(*) from member_username_gram g"
+                + " join member m on m.member_id = g.member_id where m.team_id = ? and g.gram = '비회원'", Long.class, teamId))
+                .isEqualTo(20);
+        assertThat(memberBulkService.findCheckpoint("bulkTest-update").get().getStatus())
+                .isEqualTo(BulkJobCheckpoint.Status.COMPLETED);
+
+//        완료된 작업을 다시 호출하면 실행하지 않음 (커밋된 청크가 없으므로 team_stats 도 다시 계산하지 않음)
+        jdbcTemplate.update("update team_stats set member_count = -1 where team_id = ?", teamId);
+        MemberBulkService.BulkResult again = memberBulkService.delete("bulkTest-update", QMember.member.team.id.eq(teamId));
+        assertThat(again.getAffectedRows()).isEqualTo(20);
+        assertThat(countTeamMembers()).isEqualTo(25);
+        assertThat(stats(teamId)[0]).isEqualTo(-1L);
+    }
+
+    @Test
+    public void resumesAfterFailure() {
+//        username 을 바꾸지 않는 update 는 gram 을 다시 만들지 않음
+        Long memberId = jdbcTemplate.queryForObject("select min(member_id) from member where team_id = ?", Long.class, teamId);
+        jdbcTemplate.update("insert into member_username_gram (gram, member_id) values ('zzz', ?)", memberId);
+        AtomicInteger calls = new AtomicInteger();
+        assertThatThrownBy(() -> memberBulkService.update("bulkTest-resume", QMember.member.team.id.eq(teamId),
+                clause -> {
+                    if (calls.incrementAndGet() == 2) {
+                        throw new IllegalArgumentException("boom");
+                    }
+                    clause.set(QMember.member.age, QMember.member.age.add(100));
+                }))
+                .isInstanceOf(IllegalStateException.class)
+                .hasRootCauseMessage("boom");
+
+        BulkJobCheckpoint failed = memberBulkService.findCheckpoint("bulkTest-resume").get();
+        assertThat(failed.getStatus()).isEqualTo(BulkJobCheckpoint.Status.FAILED);
+        long doneBeforeFailure = failed.getAffectedRows();
+        assertThat(doneBeforeFailure).isBetween(1L, 24L);
+
+//        커밋된 첫 청크는 다시 실행하지 않음 -> 모든 회원이 정확히 한번씩만 +100
+        MemberBulkService.BulkResult result = memberBulkService.update("bulkTest-resume", QMember.member.team.id.eq(teamId),
+                clause -> clause.set(QMember.member.age, QMember.member.age.add(100)));
+
+        assertThat(result.getAffectedRows()).isEqualTo(25);
+        Integer minAge = jdbcTemplate.queryForObject("select min(age) from member where team_id = ?", Integer.class, teamId);
+        Integer maxAge = jdbcTemplate.queryForObject("select max(age) from member where team_id = ?", Integer.class, teamId);
+        assertThat(minAge).isEqualTo(100);
+        assertThat(maxAge).isEqualTo(124);
+        assertThat(stats(teamId)).containsExactly(25L, 2800L, 100, 124);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from member_username_gram where gram = 'zzz' and member_id = ?",
+                Long.class, memberId)).isEqualTo(1);
+    }
+
+    @Test
+    public void resyncFailureKeepsJobError() {
+        TeamStatsWriter failingWriter = new TeamStatsWriter(jdbcTemplate, transactionManager) {
+            @Override
+            public void refresh(Collection<Long> teamIds) {
+                throw new IllegalStateException("resync boom");
+            }
+        };
+        memberBulkService = new MemberBulkService(jpaQueryFactory, entityManager, memberRepository,
+                memberAnalyticsSnapshot, failingWriter, memberUsernameIndex, transactionManager, 10, Duration.ZERO);
+
+//        첫 청크는 커밋된 뒤 실패 -> resync 실패는 suppressed 로 붙고 작업 예외가 그대로 나감
+        AtomicInteger calls = new AtomicInteger();
+        Throwable thrown = catchThrowable(() -> memberBulkService.update("bulkTest-resync", QMember.member.team.id.eq(teamId),
+                clause -> {
+                    if (calls.incrementAndGet() == 2) {
+                        throw new IllegalArgumentException("boom");
+                    }
+                    clause.set(QMember.member.age, QMember.member.age.add(100));
+                }));
+
+        assertThat(thrown).isInstanceOf(IllegalStateException.class).hasRootCauseMessage("boom");
+        assertThat(thrown.getSuppressed()).extracting(Throwable::getMessage).containsExactly("resync boom");
+    }
+
+    @Test
+    public void deleteInChunks() {
+        MemberBulkService.BulkResult result = memberBulkService.delete("bulkTest-delete",
+                QMember.member.team.id.eq(teamId).and(QMember.member.age.gt(18)));
+
+        assertThat(result.getAffectedRows()).isEqualTo(6);
+        assertThat(countTeamMembers()).isEqualTo(19);
+//        이벤트 없이 지워진 회원도 팀 통계에서 빠짐 (0 ~ 18)
+        assertThat(stats(teamId)).containsExactly(19L, 171L, 0, 18);
+    }
+
+    @Test
+    public void reassignTeamInChunks() {
+        MemberTeamSearchCondition condition = new MemberTeamSearchCondition();
+        condition.setTeamName("bulkTeam");
+        condition.setAgeGoe(10);
+
+        MemberBulkService.BulkResult result = memberBulkService.reassignTeam("bulkTest-reassign", condition, targetTeamId);
+
+        assertThat(result.getAffectedRows()).isEqualTo(15);
+        assertThat(countTeamMembers()).isEqualTo(10);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from member where team_id = ?", Long.class, targetTeamId))
+                .isEqualTo(16);
+
+//        청크마다 반영한 팀 통계가 member 집계와 같음 (source 최대값 24 -> 9, target 최소값 50 -> 10)
+        assertThat(stats(teamId)).containsExactly(10L, 45L, 0, 9);
+        assertThat(stats(targetTeamId)).containsExactly(16L, 50L + 255L, 10, 50);
+
+//        이미 옮겨간 회원은 다시 세지 않음
+        condition.setTeamName(null);
+        condition.setUsernameStartsWith("bulkMember");
+        MemberBulkService.BulkResult again = memberBulkService.reassignTeam("bulkTest-reassign-again", condition, targetTeamId);
+        assertThat(again.getAffectedRows()).isZero();
+    }
+
+    //    member_count, age_sum, min_age, max_age
+    private Object[] stats(Long teamId) {
+        return jdbcTemplate.queryForObject(
+                "select member_count, age_sum, min_age, max_age from team_stats where team_id = ?",
+                (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getLong(2), rs.getInt(3), rs.getInt(4)}, teamId);
+    }
+
+    private long count(String username) {
+        return jdbcTemplate.queryForObject("select count(*) from member where team_id = ? and username = ?",
+                Long.class, teamId, username);
+    }
+
+    private long countTeamMembers() {
+        return jdbcTemplate.queryForObject("select count(*) from member where team_id = ?", Long.class, teamId);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.study.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class MemberDataSeederTest {
+
+    @Autowired
+    MemberDataSeeder memberDataSeeder;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    //    청크마다 커밋되므로 직접 정리
+    @AfterEach
+    public void cleanUp() {
+        jdbcTemplate.update("delete from member where username like 'seedMember%'");
+        jdbcTemplate.update("delete from team_stats where team_id in (select id from team where name like 'seedTeam%')");
+        jdbcTemplate.update("delete from team where name like 'seedTeam%'");
+    }
+
+    @Test
+    public void seed() {
+        MemberSeedSpec spec = new MemberSeedSpec();
+        spec.setMemberCount(20_000);
+        spec.setTeamCount(20);
+        spec.setChunkSize(3_000);
+        spec.setThreads(3);
+        spec.setTeamNamePrefix("seedTeam");
+        spec.setUsernamePrefix("seedMember");
+
+        MemberDataSeeder.SeedResult result = memberDataSeeder.seed(spec);
+
+        assertThat(result.getMembers()).isEqualTo(20_000);
+        assertThat(jdbcTemplate.queryForObject(
+                "select count(distinct member_id) from member where username like 'seedMember%'", Long.class))
+                .isEqualTo(20_000);
+        assertThat(jdbcTemplate.queryForObject(
+                "select min(age) from member where username like 'seedMember%'", Integer.class))
+                .isGreaterThanOrEqualTo(spec.getAgeMin());
+        assertThat(jdbcTemplate.queryForObject(
+                "select max(age) from member where username like 'seedMember%'", Integer.class))
+                .isLessThanOrEqualTo(spec.getAgeMax());
+
+//        zipf 분포 : 첫번째 팀이 가장 크고 마지막 팀보다 훨씬 큼
+        List<Map<String, Object>> sizes = jdbcTemplate.queryForList(
+                "select t.name, count(*) cnt from member m join team t on m.team_id = t.id " +
+                        "where t.name like 'seedTeam%' group by t.name order by cnt desc");
+        assertThat(sizes.get(0).get("NAME")).isEqualTo("seedTeam1");
+        long largest = ((Number) sizes.get(0).get("CNT")).longValue();
+        long smallest = ((Number) sizes.get(sizes.size() - 1).get("CNT")).longValue();
+        assertThat(largest).isGreaterThan(smallest * 10);
+
+//        청크마다 같이 반영한 팀 통계가 member 집계와 같음
+        assertThat(jdbcTemplate.queryForObject(
+                "select count(*) from team t join team_stats s on s.team_id = t.id " +
+                        "where t.name like 'seedTeam%' and (s.member_count, s.age_sum, s.min_age, s.max_age) <> " +
+                        "(select count(*), sum(m.age), min(m.age), max(m.age) from member m where m.team_id = t.id)",
+                Long.class))
+                .isZero();
+        assertThat(jdbcTemplate.queryForObject(
+                "select sum(s.member_count) from team t join team_stats s on s.team_id = t.id where t.name like 'seedTeam%'",
+                Long.class))
+                .isEqualTo(20_000);
+    }
+
+    @Test
+    public void rejectsNonPositiveSizes() {
+        MemberSeedSpec spec = new MemberSeedSpec();
+        spec.setChunkSize(0);
+        assertThatThrownBy(() -> memberDataSeeder.seed(spec))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("chunkSize");
+
+        spec.setChunkSize(1_000);
+        spec.setTeamCount(0);
+        assertThatThrownBy(() -> memberDataSeeder.seed(spec))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("teamCount");
+    }
+
+    @Test
+    public void zipfCdf() {
+        double[] cdf = MemberDataSeeder.zipfCdf(4, 0);
+        assertThat(cdf).containsExactly(0.25, 0.5, 0.75, 1.0);
+    }
+}
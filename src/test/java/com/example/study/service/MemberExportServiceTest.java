@@ -0,0 +1,56 @@
+package com.example.study.service;
+
+import com.example.study.dto.MemberTeamSearchCondition;
+import com.example.study.entity.Member;
+import com.example.study.entity.Team;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MemberExportServiceTest {
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    MemberExportService memberExportService;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Test
+    public void exportNdjson() throws Exception {
+        Team teamA = new Team("exportTeam");
+        entityManager.persist(teamA);
+//        flush 간격보다 많이 넣어서 중간에 clear 되어도 이어서 읽히는지 확인
+        for (int i = 0; i < 2500; i++) {
+            entityManager.persist(new Member("export" + i, i % 100, teamA));
+        }
+
+        MemberTeamSearchCondition condition = new MemberTeamSearchCondition();
+        condition.setTeamName("exportTeam");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = memberExportService.exportNdjson(condition, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8.name()).split("\n");
+        assertThat(count).isEqualTo(2500);
+        assertThat(lines).hasSize(2500);
+
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertThat(first.get("username").asText()).isEqualTo("export0");
+        assertThat(first.get("teamName").asText()).isEqualTo("exportTeam");
+        assertThat(objectMapper.readTree(lines[2499]).get("username").asText()).isEqualTo("export2499");
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.study.service;
+
+import com.example.study.dto.MemberTeamDto;
+import com.example.study.dto.MemberTeamSearchCondition;
+import com.example.study.dto.SearchPage;
+import com.example.study.entity.Member;
+import com.example.study.entity.Team;
+import com.example.study.repository.MemberCountCache;
+import com.example.study.repository.MemberRepository;
+import com.example.study.repository.MemberSearchTemplates;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 컨텐츠/카운트가 다른 스레드의 트랜잭션에서 실행되므로 데이터는 커밋해두고 직접 정리
+ */
+@SpringBootTest
+class MemberPageServiceTest {
+
+    @Autowired
+    MemberPageService memberPageService;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberSearchTemplates memberSearchTemplates;
+
+    @Autowired
+    MemberCountCache memberCountCache;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    Long teamId;
+
+    @BeforeEach
+    public void before() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team team = new Team("parallelTeam");
+            entityManager.persist(team);
+            for (int i = 0; i < 5; i++) {
+                entityManager.persist(new Member("parallelMember" + i, 20 + i, team));
+            }
+            teamId = team.getId();
+        });
+        memberCountCache.invalidateAll();
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        jdbcTemplate.update("delete from member where team_id = ?", teamId);
+        jdbcTemplate.update("delete from team where id = ?", teamId);
+        memberCountCache.invalidateAll();
+    }
+
+    @Test
+    public void sameResultAsSearchPageComplex() {
+        SearchPage<MemberTeamDto> page = memberPageService.searchPage(condition(), PageRequest.of(0, 2));
+        Page<MemberTeamDto> expected = memberRepository.searchPageComplex(condition(), PageRequest.of(0, 2));
+
+        assertThat(page.isTotalKnown()).isTrue();
+        assertThat(page.getTotalElements()).isEqualTo(expected.getTotalElements()).isEqualTo(5);
+        assertThat(page.isHasNext()).isTrue();
+        assertThat(page.getContent()).extracting("memberId")
+                .containsExactlyElementsOf(expected.map(MemberTeamDto::getMemberId));
+
+//        마지막 페이지는 카운트 없이도 토탈을 알수 있음
+        SearchPage<MemberTeamDto> last = memberPageService.searchPage(condition(), PageRequest.of(2, 2));
+        assertThat(last.getTotalElements()).isEqualTo(5);
+        assertThat(last.isHasNext()).isFalse();
+    }
+
+    @Test
+    public void slowCountReturnsPageWithUnknownTotal() throws InterruptedException {
+        HoldSecondTaskExecutor executor = new HoldSecondTaskExecutor();
+        MemberPageService service = new MemberPageService(memberSearchTemplates, memberCountCache,
+                transactionManager, executor, Duration.ofSeconds(5), Duration.ofMillis(100));
+
+        SearchPage<MemberTeamDto> page = service.searchPage(condition(), PageRequest.of(0, 2));
+
+        assertThat(page.getContent()).hasSize(2);
+        assertThat(page.isTotalKnown()).isFalse();
+        assertThat(page.getTotalElements()).isNull();
+        assertThat(page.isHasNext()).isTrue();
+
+//        시작도 못한 카운트는 취소되어 실행되지 않음
+        executor.release();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+        assertThat(memberCountCache.getIfPresent(condition())).isNull();
+    }
+
+    @Test
+    public void slowCountProbesNextPage() throws InterruptedException {
+        HoldSecondTaskExecutor executor = new HoldSecondTaskExecutor();
+        MemberPageService service = new MemberPageService(memberSearchTemplates, memberCountCache,
+                transactionManager, executor, Duration.ofSeconds(5), Duration.ofMillis(100));
+
+//        마지막 행이 꽉 찬 페이지 : 토탈은 모르지만 다음 페이지가 없는것은 확인
+        SearchPage<MemberTeamDto> page = service.searchPage(condition(), PageRequest.of(4, 1));
+
+        assertThat(page.getContent()).extracting("username").containsExactly("parallelMember4");
+        assertThat(page.isTotalKnown()).isFalse();
+        assertThat(page.isHasNext()).isFalse();
+
+        executor.release();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private MemberTeamSearchCondition condition() {
+        MemberTeamSearchCondition condition = new MemberTeamSearchCondition();
+        condition.setTeamName("parallelTeam");
+        return condition;
+    }
+
+    /**
+     * 작업마다 새 스레드에서 실행하되 두번째 작업(카운트)은 release() 전까지 대기
+     */
+    static class HoldSecondTaskExecutor extends AbstractExecutorService {
+
+        private final AtomicInteger submitted = new AtomicInteger();
+        private final CountDownLatch released = new CountDownLatch(1);
+        private final List<Thread> threads = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            boolean hold = submitted.incrementAndGet() == 2;
+            Thread thread = new Thread(() -> {
+                if (hold) {
+                    try {
+                        released.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                command.run();
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        void release() {
+            released.countDown();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            for (Thread thread : threads) {
+                thread.join(unit.toMillis(timeout));
+            }
+            return true;
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            release();
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+    }
+}
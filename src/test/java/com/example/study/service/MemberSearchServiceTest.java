@@ -0,0 +1,140 @@
+package com.example.study.service;
+
+import com.example.study.config.ReplicaLagMonitor;
+import com.example.study.dto.MemberTeamDto;
+import com.example.study.dto.MemberTeamSearchCondition;
+import com.example.study.entity.Member;
+import com.example.study.entity.Team;
+import com.example.study.repository.MemberJPARepository;
+import com.example.study.repository.MemberRepository;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.util.List;
+
+import static com.example.study.entity.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 캐시는 커밋된 결과만 담으므로 트랜잭션을 테스트에서 직접 나눠서 확인
+ */
+@SpringBootTest
+class MemberSearchServiceTest {
+
+    @Autowired
+    MemberSearchService memberSearchService;
+
+    @Autowired
+    MemberJPARepository memberJPARepository;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    ObjectProvider<ReplicaLagMonitor> replicaLagMonitor;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    Long teamId;
+
+    @BeforeEach
+    public void before() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team searchTeam = new Team("searchCacheTeam");
+            entityManager.persist(searchTeam);
+            entityManager.persist(new Member("searchCacheMember1", 10, searchTeam));
+            entityManager.persist(new Member("searchCacheMember2", 20, searchTeam));
+            teamId = searchTeam.getId();
+        });
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        jdbcTemplate.update("delete from member where team_id = ?", teamId);
+        jdbcTemplate.update("delete from team where id = ?", teamId);
+        memberSearchService.invalidateAll();
+    }
+
+    @Test
+    public void identicalSearchIsServedFromCache() {
+        long hits = memberSearchService.stats().hitCount();
+
+        Page<MemberTeamDto> first = memberSearchService.searchPageComplex(condition(), PageRequest.of(0, 10));
+        Page<MemberTeamDto> second = memberSearchService.searchPageComplex(condition(), PageRequest.of(0, 10));
+        Page<MemberTeamDto> otherPage = memberSearchService.searchPageComplex(condition(), PageRequest.of(1, 10));
+
+        assertThat(second).isSameAs(first);
+        assertThat(otherPage).isNotSameAs(first);
+        assertThat(first.getTotalElements()).isEqualTo(2);
+        assertThat(memberSearchService.stats().hitCount() - hits).isEqualTo(1);
+    }
+
+    @Test
+    public void bulkUpdateInvalidatesCache() {
+        List<MemberTeamDto> before = memberSearchService.search(condition());
+        assertThat(before).extracting("age").containsExactlyInAnyOrder(10, 20);
+
+//        벌크 연산은 영속성 컨텍스트/엔티티 이벤트를 거치지 않음
+        transactionTemplate.executeWithoutResult(status -> queryFactory
+                .update(member)
+                .set(member.age, member.age.add(1))
+                .where(member.team.id.eq(teamId))
+                .execute());
+
+        List<MemberTeamDto> after = memberSearchService.search(condition());
+        assertThat(after).extracting("age").containsExactlyInAnyOrder(11, 21);
+    }
+
+    @Test
+    public void staleResultIsReturnedWhileRefreshing() throws InterruptedException {
+//        쓰기 리스너로 등록되지 않은 인스턴스라 갱신은 refresh 로만 일어남
+        MemberSearchService service = new MemberSearchService(memberJPARepository, memberRepository, replicaLagMonitor,
+                100, Duration.ofMinutes(10), Duration.ofMillis(50), 1);
+        try {
+            assertThat(service.search(condition())).hasSize(2);
+
+            transactionTemplate.executeWithoutResult(status -> entityManager.persist(
+                    new Member("searchCacheMember3", 30, entityManager.find(Team.class, teamId))));
+            Thread.sleep(100);
+
+//            refresh 시간이 지나도 첫 호출은 기다리지 않고 이전 결과를 받음
+            assertThat(service.search(condition())).hasSize(2);
+
+            List<MemberTeamDto> refreshed = service.search(condition());
+            for (int i = 0; i < 100 && refreshed.size() != 3; i++) {
+                Thread.sleep(50);
+                refreshed = service.search(condition());
+            }
+            assertThat(refreshed).hasSize(3);
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    private MemberTeamSearchCondition condition() {
+        MemberTeamSearchCondition condition = new MemberTeamSearchCondition();
+        condition.setTeamName("searchCacheTeam");
+        return condition;
+    }
+}